@@ -12,9 +12,15 @@
 #   public *;
 #}
 
-# Uncomment this to preserve the line number information for
-# debugging stack traces.
-#-keepattributes SourceFile,LineNumberTable
+# Preserve the line number information for debugging stack traces.
+-keepattributes SourceFile,LineNumberTable
+
+# Models are filled field by field from Firestore and the local stores, so keep their
+# names, public fields and no-argument constructors.
+-keep class com.example.signinsignout.models.** {
+    public <init>();
+    public <fields>;
+}
 
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
@@ -0,0 +1,31 @@
+package com.example.signinsignout;
+
+import android.app.Application;
+import android.content.pm.ApplicationInfo;
+
+import com.example.signinsignout.metrics.FileExporter;
+import com.example.signinsignout.metrics.LogcatExporter;
+import com.example.signinsignout.metrics.Metrics;
+import com.example.signinsignout.metrics.MetricsOverlay;
+
+/**
+ * Application class of the app.
+ *
+ * In debuggable builds it exports metrics to logcat and to a file in the app's files directory
+ * once a minute, and shows the metrics overlay over every activity.
+ */
+public class ChatApplication extends Application {
+
+    /**
+     * Called when the process starts, before any activity, service or receiver is created.
+     */
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            Metrics.addExporter(new LogcatExporter());
+            Metrics.addExporter(new FileExporter(getFilesDir()));
+            MetricsOverlay.install(this);
+        }
+    }
+}
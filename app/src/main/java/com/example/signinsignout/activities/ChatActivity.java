@@ -1,37 +1,53 @@
 package com.example.signinsignout.activities;
 
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.os.Bundle;
-import android.util.Base64;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 
 import androidx.activity.EdgeToEdge;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.signinsignout.R;
 import com.example.signinsignout.adapters.ChatAdapter;
+import com.example.signinsignout.database.ConversationStore;
+import com.example.signinsignout.database.MessageStore;
 import com.example.signinsignout.databinding.ActivityChatBinding;
+import com.example.signinsignout.listeners.BackfillListener;
+import com.example.signinsignout.listeners.MessageListener;
+import com.example.signinsignout.listeners.MessagePageListener;
+import com.example.signinsignout.listeners.PresenceListener;
+import com.example.signinsignout.listeners.ReceiptListener;
+import com.example.signinsignout.listeners.SendStatusListener;
+import com.example.signinsignout.listeners.UserLoadListener;
 import com.example.signinsignout.models.ChatMessage;
+import com.example.signinsignout.models.Session;
 import com.example.signinsignout.models.User;
+import com.example.signinsignout.repositories.ConversationRepository;
+import com.example.signinsignout.repositories.MessageRepository;
+import com.example.signinsignout.repositories.PresenceRepository;
+import com.example.signinsignout.repositories.ReadReceiptNotifier;
+import com.example.signinsignout.repositories.TypingNotifier;
+import com.example.signinsignout.repositories.UserRepository;
 import com.example.signinsignout.utilities.Constants;
+import com.example.signinsignout.utilities.ListRendering;
+import com.example.signinsignout.utilities.ListenerRegistry;
+import com.example.signinsignout.utilities.MessageTimeFormatter;
 import com.example.signinsignout.utilities.PreferenceManager;
-import com.google.firebase.firestore.DocumentChange;
-import com.google.firebase.firestore.EventListener;
+import com.example.signinsignout.utilities.PresenceTracker;
+import com.example.signinsignout.utilities.UserCache;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QuerySnapshot;
 
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Objects;
 
 public class ChatActivity extends AppCompatActivity {
@@ -39,14 +55,34 @@ public class ChatActivity extends AppCompatActivity {
     private ActivityChatBinding binding;
     private User receiverUser;
 
-    private List<ChatMessage> chatMessages;
     private ChatAdapter chatAdapter;
     private PreferenceManager preferenceManager;
     private FirebaseFirestore database;
+    private MessageRepository messageRepository;
+    private ListenerRegistry listenerRegistry;
+    private PresenceRepository presenceRepository;
+    private TypingNotifier typingNotifier;
+    private ReadReceiptNotifier readReceiptNotifier;
+
+    private static final int PAGE_SIZE = 30;
+    private static final int WINDOW_SIZE = PAGE_SIZE * 5;
+    private static final int PREFETCH_DISTANCE = 5;
+    private static final int ITEM_VIEW_CACHE_SIZE = 10;
+    private static final int PREWARM_ROWS = 8;
+
+    private boolean isLoadingOlder = false;
+    private boolean isLoadingNewer = false;
+    private boolean hasOlderMessages = true;
+    private boolean isAtLatest = true;
+
+    private boolean receiverOnline = false;
+    private Date receiverLastSeen;
+    private boolean receiverTyping = false;
 
 
 /**
- * Called when the activity is starting. Initializes the layout, listeners, and starts message listening.
+ * Called when the activity is starting. Initializes the layout and listeners, then resolves the
+ * receiver and starts message listening.
  *
  * @param savedInstanceState If the activity is being re-initialized after previously being shut down,
  *                           this Bundle contains the data it most recently supplied in {@link #onSaveInstanceState}.
@@ -55,129 +91,406 @@ public class ChatActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        preferenceManager = new PreferenceManager(getApplicationContext());
+        Session session = preferenceManager.getSession();
+        if (session == null || session.userId == null) {
+            SignInActivity.startInsteadOf(this);
+            return;
+        }
         binding = ActivityChatBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
-        loadReceiverDetails();
         setListeners();
-        init();
-        ListenMessage();
+        loadReceiverDetails();
+    }
+
+    /**
+     * Clears the typing mark and writes the pending read cursor when the chat is no longer visible.
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (messageRepository != null) {
+            typingNotifier.stop();
+            readReceiptNotifier.flush();
+        }
+    }
+
+    /**
+     * Releases the send status listener, which would otherwise keep the activity reachable
+     * from the outbound queue.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (messageRepository != null) {
+            messageRepository.setSendStatusListener(null);
+        }
     }
 
     /**
      * Initializes the necessary components for the chat activity, including the preference manager,
-     * chat messages list, chat adapter, and Firebase Firestore database instance.
+     * chat adapter, Firebase Firestore database instance, message repository, presence and
+     * read receipts.
      */
     private void init(){
-        preferenceManager = new PreferenceManager((getApplicationContext()));
-        chatMessages = new ArrayList<>();
+        Session session = preferenceManager.getSession();
         chatAdapter = new ChatAdapter(
-                chatMessages,
-                getBitmapFromEncodedString(receiverUser.image),
-                preferenceManager.getString(Constants.KEY_USER_ID)
+                receiverUser,
+                session.userId
         );
         binding.chatRecyclerView.setAdapter(chatAdapter);
+        binding.chatRecyclerView.addOnScrollListener(pagingScrollListener);
+        ListRendering.configure(binding.chatRecyclerView, ITEM_VIEW_CACHE_SIZE);
+        ListRendering.prewarm(binding.chatRecyclerView, chatAdapter, ChatAdapter.VIEW_TYPE_SENT, PREWARM_ROWS);
+        ListRendering.prewarm(binding.chatRecyclerView, chatAdapter, ChatAdapter.VIEW_TYPE_RECEIVED, PREWARM_ROWS);
         database= FirebaseFirestore.getInstance();
+        messageRepository = new MessageRepository(
+                database,
+                new MessageStore(getApplicationContext()),
+                new ConversationStore(getApplicationContext()),
+                session.toUser(),
+                receiverUser
+        );
+        messageRepository.setSendStatusListener(sendStatusListener);
+        listenerRegistry = new ListenerRegistry(this);
+        presenceRepository = new PresenceRepository(database, session.userId);
+        typingNotifier = new TypingNotifier(presenceRepository, messageRepository.getConversationId());
+        listenerRegistry.register(() -> presenceRepository.listenPresence(
+                receiverUser.id, messageRepository.getConversationId(), presenceListener));
+        getLifecycle().addObserver(PresenceTracker.getInstance(getApplicationContext()));
+        ConversationRepository conversationRepository = new ConversationRepository(database, session.userId);
+        readReceiptNotifier = new ReadReceiptNotifier(conversationRepository, messageRepository.getConversationId());
+        listenerRegistry.register(() -> conversationRepository.listenReceipts(
+                messageRepository.getConversationId(), receiverUser.id, receiptListener));
     }
 
     /**
-     * Sends a chat message by creating a message object and storing it in the Firestore database.
+     * Sends a chat message through the message repository.
      *
-     * The message object includes the sender ID, receiver ID, message content, and timestamp.
-     * After sending the message, the input message field is cleared.
+     * The message is queued for a batched write and shown right away as pending, so the UI
+     * never waits on the network. After sending the message, the input message field is cleared.
      */
     private void sendMessages(){
-        HashMap<String, Object> message = new HashMap<>();
-
-        message.put(Constants.KEY_SENDER_ID,preferenceManager.getString(Constants.KEY_USER_ID));
-        message.put(Constants.KEY_RECEIVER_ID, receiverUser.id);
-
-        message.put(Constants.KEY_MESSAGE, binding.inputMessage.getText().toString());
-        message.put(Constants.KEY_TIMESTAMP, new Date());
-
-        database.collection(Constants.KEY_COLLECTION_CHAT).add(message);
+        String text = binding.inputMessage.getText().toString();
+        if (messageRepository == null || text.trim().isEmpty()) {
+            return;
+        }
+        ChatMessage chatMessage = messageRepository.sendMessage(text);
         binding.inputMessage.setText(null);
+        if (!isAtLatest) {
+            return;
+        }
+        chatAdapter.addMessages(Collections.singletonList(chatMessage));
+        binding.chatRecyclerView.setVisibility(View.VISIBLE);
+        binding.chatRecyclerView.smoothScrollToPosition(chatAdapter.getItemCount() - 1);
     }
 
     /**
-     * Listens for real-time updates to chat messages in the Firestore database.
+     * Listener for the outcome of sent messages, updating their status in place.
      *
-     * Sets up snapshot listeners for messages sent by the current user to the receiver
-     * and messages sent by the receiver to the current user. Updates are handled by the
-     * specified event listener.
+     * Failed messages are added back in case the rolled-back write already removed them.
+     */
+    private final SendStatusListener sendStatusListener = new SendStatusListener() {
+        @Override
+        public void onMessagesSent(List<ChatMessage> sent) {
+            for (ChatMessage chatMessage : sent) {
+                chatAdapter.updateMessage(chatMessage);
+            }
+        }
+
+        @Override
+        public void onMessagesFailed(List<ChatMessage> failed) {
+            if (isAtLatest) {
+                chatAdapter.addMessages(failed);
+            }
+        }
+    };
+
+    /**
+     * Loads the newest page of the conversation, then listens for real-time updates from there.
+     *
+     * The newest page comes from the local message store when it has one, so only the remote
+     * changes since the last synced timestamp are streamed. A single snapshot listener on the
+     * conversation ID covers both directions of the chat. Older history is only fetched when
+     * the user scrolls up. The listener is only attached while the activity is visible and
+     * picks up from the synced timestamp when it comes back.
      */
     private void ListenMessage(){
-        database.collection(Constants.KEY_COLLECTION_CHAT)
-                .whereEqualTo(Constants.KEY_SENDER_ID,
-                        preferenceManager.getString(Constants.KEY_USER_ID))
-                .whereEqualTo(Constants.KEY_RECEIVER_ID, receiverUser.id)
-                .addSnapshotListener(eventListener);
-
-        database.collection(Constants.KEY_COLLECTION_CHAT)
-                .whereEqualTo(Constants.KEY_SENDER_ID,
-                        receiverUser.id)
-                .whereEqualTo(Constants.KEY_RECEIVER_ID,
-                        preferenceManager.getString(Constants.KEY_USER_ID))
-                .addSnapshotListener(eventListener);
+        messageRepository.loadLatest(PAGE_SIZE, new MessagePageListener() {
+            @Override
+            public void onPageLoaded(List<ChatMessage> page) {
+                chatAdapter.addMessages(page);
+                markSeen(page);
+                hasOlderMessages = page.size() == PAGE_SIZE;
+                binding.chatRecyclerView.setVisibility(View.VISIBLE);
+                binding.progressBar.setVisibility(View.GONE);
+                listenerRegistry.register(() -> messageRepository.listenMessages(messageListener));
+            }
 
+            @Override
+            public void onPageError(Exception exception) {
+                listenerRegistry.register(() -> messageRepository.listenMessages(messageListener));
+            }
+        });
     }
 
     /**
-     * Event listener for real-time updates to Firestore chat messages.
-     *
-     * Processes added chat messages, updates the local chat messages list, sorts them
-     * by timestamp, and notifies the chat adapter of changes.
+     * Loads the page before the oldest loaded message and trims the newest messages if the
+     * window grows past its bound.
+     */
+    private void loadOlderMessages(){
+        ChatMessage oldest = chatAdapter.getOldestMessage();
+        if (isLoadingOlder || !hasOlderMessages || oldest == null) {
+            return;
+        }
+        isLoadingOlder = true;
+        messageRepository.loadOlder(oldest, PAGE_SIZE, new MessagePageListener() {
+            @Override
+            public void onPageLoaded(List<ChatMessage> page) {
+                isLoadingOlder = false;
+                hasOlderMessages = page.size() == PAGE_SIZE;
+                chatAdapter.prependMessages(page);
+                int overflow = chatAdapter.getItemCount() - WINDOW_SIZE;
+                if (overflow > 0) {
+                    chatAdapter.evictNewest(overflow);
+                    isAtLatest = false;
+                }
+            }
+
+            @Override
+            public void onPageError(Exception exception) {
+                isLoadingOlder = false;
+            }
+        });
+    }
+
+    /**
+     * Loads the page after the newest loaded message when newer messages were evicted, and
+     * trims the oldest messages if the window grows past its bound.
      */
-    private final EventListener<QuerySnapshot> eventListener = ((value,error) ->{
-        if(error !=null){
+    private void loadNewerMessages(){
+        ChatMessage newest = chatAdapter.getNewestMessage();
+        if (isLoadingNewer || isAtLatest || newest == null) {
             return;
         }
-        if(value != null){
-            int count = chatMessages.size();
-            for(DocumentChange documentChange:value.getDocumentChanges()){
-                if(documentChange.getType() == DocumentChange.Type.ADDED){
-                    ChatMessage chatMessage = new ChatMessage();
-                    chatMessage.senderId = documentChange.getDocument().getString(Constants.KEY_SENDER_ID);
-                    chatMessage.receiverID = documentChange.getDocument().getString(Constants.KEY_RECEIVER_ID);
-                    chatMessage.message = documentChange.getDocument().getString(Constants.KEY_MESSAGE);
-                    chatMessage.dateTime = getReadableDateTime(
-                            documentChange.getDocument().getDate(Constants.KEY_TIMESTAMP));
-
-                    chatMessage.dateObject = documentChange.getDocument().getDate(Constants.KEY_TIMESTAMP);
-                    chatMessages.add(chatMessage);
+        isLoadingNewer = true;
+        messageRepository.loadNewer(newest, PAGE_SIZE, new MessagePageListener() {
+            @Override
+            public void onPageLoaded(List<ChatMessage> page) {
+                isLoadingNewer = false;
+                isAtLatest = page.size() < PAGE_SIZE;
+                chatAdapter.addMessages(page);
+                markSeen(page);
+                int overflow = chatAdapter.getItemCount() - WINDOW_SIZE;
+                if (overflow > 0) {
+                    chatAdapter.evictOldest(overflow);
+                    hasOlderMessages = true;
                 }
             }
 
-            Collections.sort(chatMessages,(obj1,obj2) -> obj1.dateObject.compareTo(obj2.dateObject));
-            if(count == 0){
-                chatAdapter.notifyDataSetChanged();
-            } else {
-                chatAdapter.notifyItemChanged(chatMessages.size(), chatMessages.size());
+            @Override
+            public void onPageError(Exception exception) {
+                isLoadingNewer = false;
+            }
+        });
+    }
+
+    /**
+     * Scroll listener that pages history in as the user nears either end of the loaded window.
+     */
+    private final RecyclerView.OnScrollListener pagingScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+            LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+            if (layoutManager == null) {
+                return;
+            }
+            if (dy < 0 && layoutManager.findFirstVisibleItemPosition() <= PREFETCH_DISTANCE) {
+                loadOlderMessages();
+            } else if (dy > 0 && layoutManager.findLastVisibleItemPosition()
+                    >= chatAdapter.getItemCount() - 1 - PREFETCH_DISTANCE) {
+                loadNewerMessages();
+            }
+        }
+    };
 
-                binding.chatRecyclerView.smoothScrollToPosition(chatMessages.size()-1);
+    /**
+     * Listener for ordered message deltas coming from the message repository.
+     *
+     * Added messages are inserted by the chat adapter at their ordered positions, and modified
+     * or removed messages are applied in place, so only the affected rows are rebound. While
+     * the newest messages are evicted from the window, added messages are left to the paged loads.
+     */
+    private final MessageListener messageListener = new MessageListener() {
+        @Override
+        public void onMessagesAdded(List<ChatMessage> added) {
+            if (!isAtLatest) {
+                return;
+            }
+            int count = chatAdapter.getItemCount();
+            chatAdapter.addMessages(added);
+            markSeen(added);
+            int overflow = chatAdapter.getItemCount() - WINDOW_SIZE;
+            if (overflow > 0 && !binding.chatRecyclerView.canScrollVertically(1)) {
+                chatAdapter.evictOldest(overflow);
+                hasOlderMessages = true;
+            }
+            if (count != 0) {
+                binding.chatRecyclerView.smoothScrollToPosition(chatAdapter.getItemCount() - 1);
             }
             binding.chatRecyclerView.setVisibility(View.VISIBLE);
+            binding.progressBar.setVisibility(View.GONE);
+        }
+
+        @Override
+        public void onMessagesModified(List<ChatMessage> modified) {
+            for (ChatMessage chatMessage : modified) {
+                chatAdapter.updateMessage(chatMessage);
+            }
         }
 
-        binding.progressBar.setVisibility(View.GONE);
-    });
+        @Override
+        public void onMessagesRemoved(List<ChatMessage> removed) {
+            for (ChatMessage chatMessage : removed) {
+                if (!messageRepository.isOutbound(chatMessage.id)) {
+                    chatAdapter.removeMessage(chatMessage);
+                }
+            }
+        }
+
+        @Override
+        public void onMessageError(Exception exception) {
+            binding.progressBar.setVisibility(View.GONE);
+        }
+    };
     /**
-     * Decodes a Base64 encoded image string into a Bitmap.
+     * Reports the newest message from the receiver among shown messages as read.
      *
-     * @param encodedImage The Base64 encoded string representing the image.
-     * @return The decoded Bitmap.
+     * @param shown The messages that were just shown.
      */
+    private void markSeen(List<ChatMessage> shown){
+        long newest = 0;
+        for (ChatMessage chatMessage : shown) {
+            if (receiverUser.id.equals(chatMessage.senderId)) {
+                newest = Math.max(newest, chatMessage.timestamp);
+            }
+        }
+        if (newest > 0) {
+            readReceiptNotifier.onMessagesSeen(newest);
+        }
+    }
+
+    /**
+     * Listener for the receiver's delivered and read cursors, shown on the sent messages.
+     */
+    private final ReceiptListener receiptListener = new ReceiptListener() {
+        @Override
+        public void onReceiptsChanged(long deliveredUpTo, long readUpTo) {
+            chatAdapter.setReceipts(deliveredUpTo, readUpTo);
+        }
+
+        @Override
+        public void onReceiptError(Exception exception) {
+        }
+    };
+
+    /**
+     * Listener for the receiver's presence and typing state in this conversation.
+     */
+    private final PresenceListener presenceListener = new PresenceListener() {
+        @Override
+        public void onPresenceChanged(boolean online, Date lastSeen) {
+            receiverOnline = online;
+            receiverLastSeen = lastSeen;
+            showPresence();
+        }
+
+        @Override
+        public void onTypingChanged(boolean typing) {
+            receiverTyping = typing;
+            showPresence();
+        }
 
-    private Bitmap getBitmapFromEncodedString(String encodedImage){
-        byte[] bytes = Base64.decode(encodedImage,Base64.DEFAULT);
-        return BitmapFactory.decodeByteArray(bytes,0,bytes.length);
+        @Override
+        public void onPresenceError(Exception exception) {
+            binding.textPresence.setVisibility(View.GONE);
+        }
+    };
+
+    /**
+     * Shows the receiver's state under their name: typing first, then online, then when they
+     * were last seen. Nothing is shown if none of these is known.
+     */
+    private void showPresence(){
+        String text;
+        if (receiverTyping) {
+            text = getString(R.string.presence_typing);
+        } else if (receiverOnline) {
+            text = getString(R.string.presence_online);
+        } else if (receiverLastSeen != null) {
+            text = getString(R.string.presence_last_seen,
+                    MessageTimeFormatter.format(receiverLastSeen.getTime()));
+        } else {
+            text = null;
+        }
+        binding.textPresence.setText(text);
+        binding.textPresence.setVisibility(text != null ? View.VISIBLE : View.GONE);
     }
 
     /**
-     * Loads the receiver's details from the intent and updates the UI with the receiver's name.
+     * Resolves the receiver from the user ID in the intent, then sets up the chat.
+     *
+     * The opening screen has usually put the receiver in the user cache, in which case the chat
+     * is set up right away. Otherwise the receiver is read from disk or Firestore first.
      */
     private void loadReceiverDetails(){
-        receiverUser = (User) getIntent().getSerializableExtra(Constants.KEY_USER);
-        binding.textName.setText(receiverUser.fname);
+        String receiverId = getIntent().getStringExtra(Constants.KEY_USER_ID);
+        UserCache.getInstance(getApplicationContext()).load(receiverId,
+                new UserRepository(FirebaseFirestore.getInstance(),
+                        preferenceManager.getSession().userId),
+                new UserLoadListener() {
+                    @Override
+                    public void onUserLoaded(User user) {
+                        if (isDestroyed()) {
+                            return;
+                        }
+                        receiverUser = user;
+                        binding.textName.setText(receiverUser.fname);
+                        init();
+                        backfillConversationId();
+                    }
+
+                    @Override
+                    public void onUserError(Exception exception) {
+                        if (!isDestroyed()) {
+                            finish();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Makes sure older messages of the conversation carry its ID, then starts listening.
+     *
+     * A failed backfill is retried the next time the chat opens, and the messages that already
+     * carry the ID are shown in the meantime.
+     */
+    private void backfillConversationId() {
+        messageRepository.backfillConversationId(new BackfillListener() {
+            @Override
+            public void onBackfillComplete() {
+                if (!isDestroyed()) {
+                    ListenMessage();
+                }
+            }
+
+            @Override
+            public void onBackfillError(Exception exception) {
+                if (!isDestroyed()) {
+                    ListenMessage();
+                }
+            }
+        });
     }
 
     /**
@@ -185,20 +498,28 @@ public class ChatActivity extends AppCompatActivity {
      *
      * - Navigates back when the back button is clicked.
      * - Sends a message when the send button is clicked.
+     * - Reports typing while the message input changes.
      */
     private void setListeners(){
         binding.imageBack.setOnClickListener(v -> onBackPressed());
 
         binding.layoutSend.setOnClickListener(v -> sendMessages());
-    }
-    /**
-     * Converts a Date object into a formatted, human-readable date-time string.
-     *
-     * @param date The Date object to be formatted.
-     * @return A string representing the formatted date and time (e.g., "MMM dd, yyyy - hh:mm a").
-     */
-    private String getReadableDateTime(Date date){
-        return new SimpleDateFormat("MMM dd, yyyy - hh:mm a",
-                Locale.getDefault()).format(date);
+
+        binding.inputMessage.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                if (typingNotifier != null) {
+                    typingNotifier.onInputChanged(s.length() == 0);
+                }
+            }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.signinsignout.activities;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.os.Bundle;
+
+import com.example.signinsignout.models.Session;
+import com.example.signinsignout.utilities.PreferenceManager;
+import com.example.signinsignout.utilities.StartupPrefetcher;
+
+/**
+ * Entry point of the app, routing to the home screen or to sign-in without showing anything.
+ *
+ * The cached session decides the route, so signed-in users skip the sign-in screen entirely.
+ * Their home screen data is prefetched in parallel while MainActivity inflates.
+ */
+public class LauncherActivity extends Activity {
+
+    /**
+     * Starts the screen matching the cached session and finishes right away.
+     *
+     * @param savedInstanceState Not used.
+     */
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        Session session = new PreferenceManager(getApplicationContext()).getSession();
+        Intent intent;
+        if (session != null && session.userId != null) {
+            StartupPrefetcher.start(getApplicationContext(), session, MainActivity.RECENT_CONVERSATIONS_LIMIT);
+            intent = new Intent(getApplicationContext(), MainActivity.class);
+        } else {
+            intent = new Intent(getApplicationContext(), SignInActivity.class);
+        }
+        startActivity(intent);
+        finish();
+    }
+}
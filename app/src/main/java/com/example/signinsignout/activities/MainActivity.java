@@ -1,10 +1,8 @@
 package com.example.signinsignout.activities;
 
 import android.content.Intent;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.os.Bundle;
-import android.util.Base64;
+import android.view.View;
 import android.widget.Toast;
 
 import androidx.activity.EdgeToEdge;
@@ -14,24 +12,48 @@ import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
 import com.example.signinsignout.R;
+import com.example.signinsignout.adapters.RecentConversationsAdapter;
+import com.example.signinsignout.database.ChatDatabase;
+import com.example.signinsignout.database.ConversationStore;
 import com.example.signinsignout.databinding.ActivityMainBinding;
+import com.example.signinsignout.listeners.ConversationListener;
+import com.example.signinsignout.listeners.UserListener;
+import com.example.signinsignout.models.Conversation;
+import com.example.signinsignout.models.Session;
+import com.example.signinsignout.models.User;
+import com.example.signinsignout.repositories.ConversationRepository;
+import com.example.signinsignout.utilities.AppExecutors;
 import com.example.signinsignout.utilities.Constants;
+import com.example.signinsignout.utilities.ImageLoader;
+import com.example.signinsignout.utilities.ListRendering;
+import com.example.signinsignout.utilities.ListenerRegistry;
 import com.example.signinsignout.utilities.PreferenceManager;
+import com.example.signinsignout.utilities.PresenceTracker;
+import com.example.signinsignout.utilities.UserCache;
+import com.example.signinsignout.utilities.StartupPrefetcher;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.messaging.FirebaseMessaging;
 
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Future;
 
-public class MainActivity extends AppCompatActivity {
+public class MainActivity extends AppCompatActivity implements UserListener {
 
     private ActivityMainBinding binding;
     private PreferenceManager preferenceManager;
+    private RecentConversationsAdapter conversationsAdapter;
+    private ListenerRegistry listenerRegistry;
+
+    static final int RECENT_CONVERSATIONS_LIMIT = 30;
+    private static final int ITEM_VIEW_CACHE_SIZE = 6;
+    private static final int PREWARM_ROWS = 8;
 
     /**
      * Called when the activity is starting. Sets up the layout, initializes the preference manager,
-     * loads user details, retrieves a token, and sets up event listeners.
+     * loads user details, retrieves a token, sets up event listeners and listens to recent conversations.
      *
      * @param savedInstanceState If the activity is being re-initialized after previously being shut down,
      *                           this Bundle contains the data it most recently supplied in {@link #onSaveInstanceState}.
@@ -40,13 +62,20 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        preferenceManager = new PreferenceManager(getApplicationContext());
+        Session session = preferenceManager.getSession();
+        if (session == null || session.userId == null) {
+            SignInActivity.startInsteadOf(this);
+            return;
+        }
 
         binding = ActivityMainBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
-        preferenceManager = new PreferenceManager(getApplicationContext());
+        getLifecycle().addObserver(PresenceTracker.getInstance(getApplicationContext()));
         loadUserDetails();
         getToken();
         setListeners();
+        listenConversations();
 
     }
 
@@ -66,14 +95,87 @@ public class MainActivity extends AppCompatActivity {
      * Loads the current user's details from the preference manager and updates the UI.
      *
      * - Sets the user's full name in the text view.
-     * - Decodes the user's profile image from a Base64 string and displays it in the profile image view.
+     * - Loads the user's profile image through the shared image loader, off the main thread.
      */
     private void loadUserDetails(){
-        binding.textName.setText(preferenceManager.getString(Constants.KEY_FIRST_NAME) + " " + preferenceManager.getString(Constants.KEY_LAST_NAME));
+        Session session = preferenceManager.getSession();
+        binding.textName.setText(session.firstName + " " + session.lastName);
 
-        byte[] bytes = Base64.decode(preferenceManager.getString(Constants.KEY_IMAGE),Base64.DEFAULT);
-        Bitmap bitmap = BitmapFactory.decodeByteArray(bytes,0,bytes.length);
-        binding.imageProfile.setImageBitmap(bitmap);
+        ImageLoader.getInstance().loadProfileImage(
+                session.userId, session.imageRef, session.image, binding.imageProfile);
+    }
+
+    /**
+     * Listens to the signed-in user's most recent conversations with one indexed query on the
+     * conversation summaries and shows them in the recent chats list.
+     *
+     * The summaries cached on disk, including those written by push handling, are shown first
+     * and every snapshot is written back to the cache. The cached read started at launch is
+     * used when there is one. The listener is only attached while the activity is visible.
+     */
+    private void listenConversations(){
+        conversationsAdapter = new RecentConversationsAdapter(this);
+        binding.conversationsRecyclerView.setAdapter(conversationsAdapter);
+        ListRendering.configure(binding.conversationsRecyclerView, ITEM_VIEW_CACHE_SIZE);
+        ListRendering.prewarm(binding.conversationsRecyclerView, conversationsAdapter,
+                RecentConversationsAdapter.VIEW_TYPE_CONVERSATION, PREWARM_ROWS);
+        ConversationStore conversationStore = new ConversationStore(getApplicationContext());
+        Future<List<Conversation>> prefetched = StartupPrefetcher.takeRecentConversations();
+        AppExecutors.diskIO().execute(() -> {
+            List<Conversation> cached = null;
+            if (prefetched != null) {
+                try {
+                    cached = prefetched.get();
+                } catch (Exception e) {
+                    cached = null;
+                }
+            }
+            if (cached == null) {
+                cached = conversationStore.getRecentConversations(RECENT_CONVERSATIONS_LIMIT);
+            }
+            List<Conversation> loaded = cached;
+            AppExecutors.mainThread().execute(() -> {
+                if (!loaded.isEmpty() && conversationsAdapter.getItemCount() == 0) {
+                    conversationsAdapter.setConversations(loaded);
+                    binding.conversationsRecyclerView.setVisibility(View.VISIBLE);
+                    binding.progressBar.setVisibility(View.GONE);
+                }
+            });
+        });
+        ConversationRepository conversationRepository = new ConversationRepository(
+                FirebaseFirestore.getInstance(), preferenceManager.getSession().userId);
+        ConversationListener conversationListener = new ConversationListener() {
+            @Override
+            public void onConversationsChanged(List<Conversation> conversations) {
+                AppExecutors.diskIO().execute(() -> conversationStore.putConversations(conversations));
+                conversationsAdapter.setConversations(conversations);
+                binding.conversationsRecyclerView.setVisibility(View.VISIBLE);
+                binding.progressBar.setVisibility(View.GONE);
+            }
+
+            @Override
+            public void onConversationError(Exception exception) {
+                binding.progressBar.setVisibility(View.GONE);
+            }
+        };
+        listenerRegistry = new ListenerRegistry(this);
+        listenerRegistry.register(() -> conversationRepository.listenRecentConversations(
+                RECENT_CONVERSATIONS_LIMIT, conversationListener));
+    }
+
+    /**
+     * Opens the chat with the other participant of a clicked conversation.
+     *
+     * The participant from the summary is put in the user cache, so only its ID is passed.
+     *
+     * @param user The other participant.
+     */
+    @Override
+    public void onUserClicked(User user) {
+        UserCache.getInstance(getApplicationContext()).putIfAbsent(user);
+        Intent intent = new Intent(getApplicationContext(), ChatActivity.class);
+        intent.putExtra(Constants.KEY_USER_ID, user.id);
+        startActivity(intent);
     }
 
     /**
@@ -93,14 +195,22 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * Retrieves the Firebase Cloud Messaging (FCM) token and updates it using the updateToken method.
+     * Saves the FCM token to the user document, unless it was already saved for this session.
+     *
+     * @param token The current FCM token.
      */
     private void updateToken(String token) {
+        if (token.equals(preferenceManager.getString(Constants.KEY_FCM_TOKEN))) {
+            return;
+        }
         FirebaseFirestore database = FirebaseFirestore.getInstance();
         DocumentReference documentReference = database.collection(Constants.KEY_COLLECTION_USERS)
-                .document(preferenceManager.getString(Constants.KEY_USER_ID));
+                .document(preferenceManager.getSession().userId);
         documentReference.update(Constants.KEY_FCM_TOKEN,token)
-                .addOnSuccessListener(unused -> showToast("Token updated successfully"))
+                .addOnSuccessListener(unused -> {
+                    preferenceManager.putString(Constants.KEY_FCM_TOKEN, token);
+                    showToast("Token updated successfully");
+                })
                 .addOnFailureListener(e -> showToast("Unable to update Token"));
     }
 
@@ -108,22 +218,37 @@ public class MainActivity extends AppCompatActivity {
      * Signs the user out of the application.
      *
      * - Displays a toast message indicating the sign-out process.
+     * - Marks the user offline right away.
      * - Deletes the user's FCM token from the Firestore database.
-     * - Clears user preferences and redirects to the SignInActivity on success.
+     * - Clears user preferences and every local cache of chat data, then redirects to the
+     *   SignInActivity on success.
      * - Displays an error toast if the sign-out process fails.
      */
     private void signOut(){
         showToast("Signing out ...");
+        PresenceTracker.getInstance(getApplicationContext()).goOffline();
         FirebaseFirestore database = FirebaseFirestore.getInstance();
         DocumentReference documentReference = database.collection(Constants.KEY_COLLECTION_USERS)
-                .document(preferenceManager.getString(Constants.KEY_USER_ID));
+                .document(preferenceManager.getSession().userId);
         HashMap<String,Object> updates = new HashMap<>();
         updates.put(Constants.KEY_FCM_TOKEN, FieldValue.delete());
         documentReference.update(updates)
                 .addOnSuccessListener(unused -> {
                     preferenceManager.clear();
+                    clearLocalData();
                     startActivity(new Intent(getApplicationContext(), SignInActivity.class));
                     finish();
                 }).addOnFailureListener(e -> showToast("Unable to sign out"));
     }
+
+    /**
+     * Clears the conversations, messages, users and images cached for the signed-out user, so
+     * the next user signing in on this device never sees them.
+     */
+    private void clearLocalData() {
+        ChatDatabase chatDatabase = ChatDatabase.getInstance(getApplicationContext());
+        AppExecutors.diskIO().execute(chatDatabase::clear);
+        UserCache.getInstance(getApplicationContext()).clear();
+        ImageLoader.getInstance().clear();
+    }
 }
\ No newline at end of file
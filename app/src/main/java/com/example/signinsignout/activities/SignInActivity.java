@@ -1,5 +1,6 @@
 package com.example.signinsignout.activities;
 
+import android.app.Activity;
 import android.content.Intent;
 import android.os.Bundle;
 import android.provider.MediaStore;
@@ -10,14 +11,12 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.signinsignout.databinding.ActivitySignInBinding;
-import com.example.signinsignout.utilities.Constants;
+import com.example.signinsignout.listeners.AuthListener;
+import com.example.signinsignout.models.Session;
+import com.example.signinsignout.repositories.AuthRepository;
 import com.example.signinsignout.utilities.PreferenceManager;
-import com.google.firebase.Firebase;
-import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
-import java.util.HashMap;
-
 /**
  * Activity for user sign-in, validating credentials, and managing user preferences.
  */
@@ -41,6 +40,19 @@ public class SignInActivity extends AppCompatActivity {
         setListeners();
     }
 
+    /**
+     * Replaces the task with the sign-in screen. Used by screens that need a signed-in user
+     * when there is none, the same route LauncherActivity takes.
+     *
+     * @param activity The screen that cannot be shown.
+     */
+    public static void startInsteadOf(Activity activity) {
+        Intent intent = new Intent(activity.getApplicationContext(), SignInActivity.class);
+        intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+        activity.startActivity(intent);
+        activity.finish();
+    }
+
     /**
      * Sets click listeners for creating a new account and signing in.
      */
@@ -64,32 +76,29 @@ public class SignInActivity extends AppCompatActivity {
     }
 
     /**
-     * Handles the sign-in process by verifying user credentials with Firebase Firestore.
+     * Handles the sign-in process through the auth repository.
+     *
+     * The credentials are checked against a salted hash off the main thread, and only the
+     * session fields are read, however large the profile is.
      */
     private void SignIn() {
         loading(true);
-        FirebaseFirestore database = FirebaseFirestore.getInstance();
-
-        database.collection(Constants.KEY_COLLECTION_USERS)
-                .whereEqualTo(Constants.KEY_EMAIL, binding.inputEmail.getText().toString())
-                .whereEqualTo(Constants.KEY_PASSWORD, binding.Password.getText().toString())
-                .get()
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful() && task.getResult() != null && task.getResult().getDocuments().size() > 0) {
-                        DocumentSnapshot documentSnapshot = task.getResult().getDocuments().get(0);
-
-                        preferenceManager.putBoolean(Constants.KEY_IS_SIGNED_IN,true);
-                        preferenceManager.putString(Constants.KEY_USER_ID,documentSnapshot.getId());
-                        preferenceManager.putString(Constants.KEY_FIRST_NAME,documentSnapshot.getString(Constants.KEY_FIRST_NAME));
-                        preferenceManager.putString(Constants.KEY_LAST_NAME,documentSnapshot.getString(Constants.KEY_LAST_NAME));
-                        preferenceManager.putString(Constants.KEY_IMAGE,documentSnapshot.getString(Constants.KEY_IMAGE));
-
+        new AuthRepository(FirebaseFirestore.getInstance()).signIn(
+                binding.inputEmail.getText().toString(),
+                binding.Password.getText().toString(),
+                new AuthListener() {
+                    @Override
+                    public void onAuthenticated(Session session) {
+                        preferenceManager.putSession(session);
 
                         Intent intent = new Intent(getApplicationContext(), MainActivity.class);
                         intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
                         startActivity(intent);
                         showToast("Successful Sign in!");
-                    } else {
+                    }
+
+                    @Override
+                    public void onAuthError(Exception exception) {
                         loading(false);
                         showToast("Unable to sign in.");
                     }
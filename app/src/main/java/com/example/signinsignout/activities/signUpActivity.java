@@ -2,19 +2,21 @@ package com.example.signinsignout.activities;
 
 import android.content.Intent;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.net.Uri;
 import android.os.Bundle;
 import android.provider.MediaStore;
-import android.util.Base64;
 import android.util.Patterns;
 import android.view.View;
 import android.widget.Toast;
 
-import com.example.signinsignout.utilities.Constants;
+import com.example.signinsignout.firebase.ImageStore;
+import com.example.signinsignout.listeners.AuthListener;
+import com.example.signinsignout.listeners.ImageEncodeListener;
+import com.example.signinsignout.models.Session;
+import com.example.signinsignout.repositories.AuthRepository;
+import com.example.signinsignout.utilities.ImageEncoder;
 import com.example.signinsignout.utilities.PreferenceManager;
 import com.google.firebase.firestore.FirebaseFirestore;
-import java.util.HashMap;
 import androidx.activity.EdgeToEdge;
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
@@ -28,9 +30,6 @@ import com.example.signinsignout.R;
 import com.example.signinsignout.databinding.ActivitySignUpBinding;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.FileNotFoundException;
-import java.io.InputStream;
 import java.text.BreakIterator;
 
 /**
@@ -40,7 +39,8 @@ public class signUpActivity extends AppCompatActivity {
 
     private ActivitySignUpBinding binding;
     private PreferenceManager preferenceManager;
-    private String encodeImage;
+    private byte[] thumbnailImage;
+    private byte[] fullImage;
 
     /**
      * Initializes the activity, sets up the layout, preferences, and listeners.
@@ -87,76 +87,75 @@ public class signUpActivity extends AppCompatActivity {
     }
 
     /**
-     * Handles the sign-up process by storing user details in Firebase Firestore.
+     * Handles the sign-up process by uploading the profile image to the image store and
+     * storing user details, with only the image reference, in Firebase Firestore.
      */
     private void SignUp() {
         loading(true);
 
-        FirebaseFirestore database = FirebaseFirestore.getInstance();
-        HashMap<String, String> user = new HashMap<>();
-        user.put(Constants.KEY_FIRST_NAME, binding.inputFirstName.getText().toString());
-        user.put(Constants.KEY_LAST_NAME, binding.inputLastName.getText().toString());
-        user.put(Constants.KEY_EMAIL, binding.inputEmail.getText().toString());
-        user.put(Constants.KEY_PASSWORD, binding.inputPassword.getText().toString());
-        user.put(Constants.KEY_IMAGE, encodeImage);
-
-        database.collection(Constants.KEY_COLLECTION_USERS)
-                .add(user)
-                .addOnSuccessListener(documentReference -> {
-                    loading(false);
-                    preferenceManager.putBoolean(Constants.KEY_IS_SIGNED_IN, true);
-                    preferenceManager.putString(Constants.KEY_FIRST_NAME, binding.inputFirstName.getText().toString());
-                    preferenceManager.putString(Constants.KEY_LAST_NAME, binding.inputLastName.getText().toString());
-                    preferenceManager.putString(Constants.KEY_IMAGE, encodeImage);
-
-                    Intent intent = new Intent(getApplicationContext(), MainActivity.class);
-                    intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-                    startActivity(intent);
-
-                }).addOnFailureListener(exception -> {
+        new ImageStore().upload(thumbnailImage, fullImage)
+                .addOnSuccessListener(this::addUser)
+                .addOnFailureListener(exception -> {
                     loading(false);
                     showToast(exception.getMessage());
                 });
     }
 
     /**
-     * Encodes a Bitmap image to a Base64 string.
+     * Creates the user and their hashed credentials once the profile image is uploaded.
      *
-     * @param bitmap The Bitmap image to encode.
-     * @return The Base64 encoded string representation of the image.
+     * @param imageRef The image store reference of the profile image.
      */
-    private String encodeImage(Bitmap bitmap) {
-        int previewWidth = 150;
-        int previewHeight = bitmap.getHeight() * previewWidth / bitmap.getWidth();
-
-        Bitmap previewBitmap = Bitmap.createScaledBitmap(bitmap, previewWidth, previewHeight, false);
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-
-        previewBitmap.compress(Bitmap.CompressFormat.JPEG, 50, byteArrayOutputStream);
+    private void addUser(String imageRef) {
+        new AuthRepository(FirebaseFirestore.getInstance()).signUp(
+                binding.inputFirstName.getText().toString(),
+                binding.inputLastName.getText().toString(),
+                binding.inputEmail.getText().toString(),
+                binding.inputPassword.getText().toString(),
+                imageRef,
+                new AuthListener() {
+                    @Override
+                    public void onAuthenticated(Session session) {
+                        loading(false);
+                        preferenceManager.putSession(session);
+
+                        Intent intent = new Intent(getApplicationContext(), MainActivity.class);
+                        intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+                        startActivity(intent);
+                    }
 
-        byte[] bytes = byteArrayOutputStream.toByteArray();
-        return Base64.encodeToString(bytes, Base64.DEFAULT);
+                    @Override
+                    public void onAuthError(Exception exception) {
+                        loading(false);
+                        showToast(exception.getMessage());
+                    }
+                });
     }
 
     /**
-     * Launches an activity to pick an image from the gallery and processes the selected image.
+     * Launches an activity to pick an image from the gallery and encodes the selected image
+     * into its thumbnail and full variants in the background.
      */
     private final ActivityResultLauncher<Intent> pickImage = registerForActivityResult(
             new ActivityResultContracts.StartActivityForResult(),
             result -> {
                 if (result.getResultCode() == RESULT_OK) {
                     Uri imageUri = result.getData().getData();
-                    try {
-                        InputStream inputStream = getContentResolver().openInputStream(imageUri);
-                        Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
-
-                        binding.imageProfile.setImageBitmap(bitmap);
-                        binding.textAddImage.setVisibility(View.GONE);
-                        encodeImage = encodeImage(bitmap);
-
-                    } catch (FileNotFoundException e) {
-                        e.printStackTrace();
-                    }
+                    ImageEncoder.encode(getContentResolver(), imageUri,
+                            new int[]{ImageStore.THUMBNAIL_WIDTH, ImageStore.FULL_WIDTH}, new ImageEncodeListener() {
+                                @Override
+                                public void onImageEncoded(Bitmap preview, byte[][] variants) {
+                                    binding.imageProfile.setImageBitmap(preview);
+                                    binding.textAddImage.setVisibility(View.GONE);
+                                    thumbnailImage = variants[0];
+                                    fullImage = variants[1];
+                                }
+
+                                @Override
+                                public void onImageEncodeError(Exception exception) {
+                                    showToast("Unable to load image");
+                                }
+                            });
                 }
             }
     );
@@ -167,7 +166,7 @@ public class signUpActivity extends AppCompatActivity {
      * @return True if the details are valid, false otherwise.
      */
     private Boolean isValidateSignUpDetails() {
-        if (encodeImage == null) {
+        if (thumbnailImage == null || fullImage == null) {
             showToast("Please select your image");
             return false;
         } else if (binding.inputFirstName.getText().toString().trim().isEmpty()) {
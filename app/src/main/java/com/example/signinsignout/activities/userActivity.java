@@ -2,24 +2,37 @@ package com.example.signinsignout.activities;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.Toast;
 
 import androidx.activity.EdgeToEdge;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.signinsignout.R;
 import com.example.signinsignout.adapters.UsersAdapter;
 import com.example.signinsignout.databinding.ActivityUserBinding;
 import com.example.signinsignout.listeners.UserListener;
+import com.example.signinsignout.listeners.UserPageListener;
+import com.example.signinsignout.models.Session;
 import com.example.signinsignout.models.User;
+import com.example.signinsignout.repositories.UserRepository;
 import com.example.signinsignout.utilities.Constants;
+import com.example.signinsignout.utilities.ListRendering;
 import com.example.signinsignout.utilities.PreferenceManager;
+import com.example.signinsignout.utilities.PresenceTracker;
+import com.example.signinsignout.utilities.UserCache;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -28,6 +41,21 @@ public class userActivity extends AppCompatActivity implements UserListener {
 
     private ActivityUserBinding binding;
     private PreferenceManager preferenceManager;
+    private UserRepository userRepository;
+    private UsersAdapter usersAdapter;
+
+    private static final int PAGE_SIZE = 20;
+    private static final int PREFETCH_DISTANCE = 5;
+    private static final long SEARCH_DEBOUNCE_MS = 300;
+    private static final int ITEM_VIEW_CACHE_SIZE = 6;
+    private static final int PREWARM_ROWS = 10;
+
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private String currentSearch = "";
+    private DocumentSnapshot lastDocument;
+    private boolean hasMoreUsers = true;
+    private boolean isLoading = false;
+    private int requestGeneration = 0;
 
 /**
  * Called when the activity is starting. Sets up the layout, initializes the preference manager,
@@ -39,62 +67,125 @@ public class userActivity extends AppCompatActivity implements UserListener {
  @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        binding = ActivityUserBinding.inflate(getLayoutInflater());
         preferenceManager = new PreferenceManager(getApplicationContext());
+        Session session = preferenceManager.getSession();
+        if (session == null || session.userId == null) {
+            SignInActivity.startInsteadOf(this);
+            return;
+        }
+        binding = ActivityUserBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
+        getLifecycle().addObserver(PresenceTracker.getInstance(getApplicationContext()));
+        userRepository = new UserRepository(FirebaseFirestore.getInstance(),
+                session.userId);
+        usersAdapter = new UsersAdapter(new ArrayList<>(), this);
+        binding.usersRecyclerView.setAdapter(usersAdapter);
+        ListRendering.configure(binding.usersRecyclerView, ITEM_VIEW_CACHE_SIZE);
+        ListRendering.prewarm(binding.usersRecyclerView, usersAdapter, UsersAdapter.VIEW_TYPE_USER, PREWARM_ROWS);
         setListeners();
         getUsers();
     }
 
     /**
-     * Sets a click listener for the back button to navigate to the previous screen when clicked.
+     * Sets a click listener for the back button, a debounced search watcher on the search field,
+     * and a scroll listener that loads the next page of users.
      */
     private void setListeners() {
         binding.imageBack.setOnClickListener(v -> onBackPressed());
+        binding.inputSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                searchHandler.removeCallbacks(searchRunnable);
+                searchHandler.postDelayed(searchRunnable, SEARCH_DEBOUNCE_MS);
+            }
+        });
+        binding.usersRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (dy > 0 && layoutManager != null && layoutManager.findLastVisibleItemPosition()
+                        >= usersAdapter.getItemCount() - 1 - PREFETCH_DISTANCE) {
+                    getUsers();
+                }
+            }
+        });
     }
 
     /**
-     * Retrieves the list of users from the Firestore database and updates the UI.
+     * Restarts the user list for the current search text.
+     */
+    private final Runnable searchRunnable = () -> {
+        String search = binding.inputSearch.getText().toString();
+        if (search.trim().equals(currentSearch)) {
+            return;
+        }
+        currentSearch = search.trim();
+        lastDocument = null;
+        hasMoreUsers = true;
+        requestGeneration++;
+        isLoading = false;
+        usersAdapter.clearUsers();
+        binding.textErrorMessage.setVisibility(View.GONE);
+        getUsers();
+    };
+
+    /**
+     * Retrieves the next page of users from the Firestore database and updates the UI.
      *
-     * - Shows a loading indicator while fetching data.
-     * - Filters out the current user's details from the retrieved user list.
-     * - Populates the RecyclerView with the list of users if available.
+     * - Shows a loading indicator while fetching the first page.
+     * - Leaves the current user out of the query itself.
+     * - Appends the page to the RecyclerView if users are available.
      * - Displays an error message if no users are found or the task fails.
      */
     private void getUsers() {
-        loading(true);
-        FirebaseFirestore database = FirebaseFirestore.getInstance();
-        database.collection(Constants.KEY_COLLECTION_USERS)
-                .get()
-                .addOnCompleteListener(task -> {
-                    loading(false);
-                    String currentUserId = preferenceManager.getString(Constants.KEY_USER_ID);
-                    if (task.isSuccessful() && task.getResult() != null) {
-                        List<User> users = new ArrayList<>();
-                        for (QueryDocumentSnapshot queryDocumentSnapshot : task.getResult()) {
-                            if (currentUserId.equals(queryDocumentSnapshot.getId())) {
-                                continue;
-                            }
-                            User user = new User();
-                            user.fname = queryDocumentSnapshot.getString(Constants.KEY_FIRST_NAME);
-                            user.lname = queryDocumentSnapshot.getString(Constants.KEY_LAST_NAME);
-                            user.email = queryDocumentSnapshot.getString(Constants.KEY_EMAIL);
-                            user.image = queryDocumentSnapshot.getString(Constants.KEY_IMAGE);
-                            user.token = queryDocumentSnapshot.getString(Constants.KEY_FCM_TOKEN);
-                            user.id = queryDocumentSnapshot.getId();
-                            users.add(user);
-                        }
-                        if (users.size() > 0) {
-                            UsersAdapter usersAdapter = new UsersAdapter(users, this);
-                            binding.usersRecyclerView.setAdapter(usersAdapter);
-                            binding.usersRecyclerView.setVisibility(View.VISIBLE);
-                        } else{
-                            showErrorMessage();
-                        }
-                    }else{
-                        showErrorMessage();
-                    }
-                });
+        if (isLoading || !hasMoreUsers) {
+            return;
+        }
+        isLoading = true;
+        boolean isFirstPage = lastDocument == null;
+        if (isFirstPage) {
+            loading(true);
+        }
+        int generation = requestGeneration;
+        userRepository.loadUsers(currentSearch, lastDocument, PAGE_SIZE, new UserPageListener() {
+            @Override
+            public void onUsersLoaded(List<User> users, DocumentSnapshot last) {
+                if (generation != requestGeneration) {
+                    return;
+                }
+                isLoading = false;
+                loading(false);
+                hasMoreUsers = users.size() == PAGE_SIZE;
+                lastDocument = last;
+                if (users.size() > 0) {
+                    UserCache.getInstance(getApplicationContext()).putAll(users);
+                    usersAdapter.addUsers(users);
+                    binding.usersRecyclerView.setVisibility(View.VISIBLE);
+                } else if (isFirstPage) {
+                    showErrorMessage();
+                }
+            }
+
+            @Override
+            public void onUsersError(Exception exception) {
+                if (generation != requestGeneration) {
+                    return;
+                }
+                isLoading = false;
+                loading(false);
+                if (isFirstPage) {
+                    showErrorMessage();
+                }
+            }
+        });
     }
 
     /**
@@ -133,10 +224,20 @@ public class userActivity extends AppCompatActivity implements UserListener {
     }
 
 
+    /**
+     * Cancels a pending search when the activity is destroyed.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        searchHandler.removeCallbacks(searchRunnable);
+    }
+
     /**
      * Handles the event when a user is clicked in the user list.
      *
-     * - Starts the ChatActivity, passing the selected user as an intent extra.
+     * - Starts the ChatActivity, passing only the selected user's ID; the user itself is
+     *   already in the user cache.
      * - Finishes the current activity.
      *
      * @param user The selected user object.
@@ -144,7 +245,7 @@ public class userActivity extends AppCompatActivity implements UserListener {
     @Override
     public void onUserClicked(User user) {
         Intent intent = new Intent(getApplicationContext(), ChatActivity.class);
-        intent.putExtra(Constants.KEY_USER, user);
+        intent.putExtra(Constants.KEY_USER_ID, user.id);
         startActivity(intent);
         finish();
     }
@@ -1,22 +1,29 @@
 package com.example.signinsignout.adapters;
 
-import android.graphics.Bitmap;
-import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.signinsignout.R;
 import com.example.signinsignout.databinding.ItemContainerReceivedMessageBinding;
 import com.example.signinsignout.databinding.ItemContainerSentMessageBinding;
+import com.example.signinsignout.metrics.Metrics;
 import com.example.signinsignout.models.ChatMessage;
+import com.example.signinsignout.models.MessageBuffer;
+import com.example.signinsignout.models.User;
+import com.example.signinsignout.utilities.ImageLoader;
+import com.example.signinsignout.utilities.ListRendering;
+import com.example.signinsignout.utilities.MessageTimeFormatter;
 
 import java.util.List;
 
 public class ChatAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
-    private final Bitmap receiverProfileImage;
-    private final List<ChatMessage> chatMessages;
+    private final User receiverUser;
+    private final MessageBuffer messages = new MessageBuffer();
     private final String sendId;
+    private long deliveredUpTo;
+    private long readUpTo;
 
     public static final int VIEW_TYPE_SENT = 1;
     public static final int VIEW_TYPE_RECEIVED = 2;
@@ -24,14 +31,180 @@ public class ChatAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
     /**
      * Constructor for the ChatAdapter.
      *
-     * @param chatMessages         The list of chat messages to be displayed.
-     * @param receiverProfileImage The Bitmap image of the receiver's profile picture.
-     * @param sendId               The sender's unique ID.
+     * The adapter owns its chat messages and keeps them sorted by timestamp in a compact
+     * message buffer, which the view holders read by position. Rows have stable IDs derived
+     * from the message document IDs.
+     *
+     * @param receiverUser The receiver, whose profile picture is shown next to received messages.
+     * @param sendId       The sender's unique ID.
      */
-    public ChatAdapter(List<ChatMessage> chatMessages, Bitmap receiverProfileImage, String sendId) {
-        this.receiverProfileImage = receiverProfileImage;
-        this.chatMessages = chatMessages;
+    public ChatAdapter(User receiverUser, String sendId) {
+        this.receiverUser = receiverUser;
         this.sendId = sendId;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Inserts messages at their ordered positions.
+     *
+     * Messages newer than the last one are appended and notified as one range. Older messages
+     * are placed by binary search. Messages that are already shown are updated instead.
+     *
+     * @param added The messages to insert, ideally ordered by timestamp.
+     */
+    public void addMessages(List<ChatMessage> added) {
+        int appendStart = -1;
+        for (ChatMessage chatMessage : added) {
+            int size = messages.size();
+            if (messages.indexOf(chatMessage) >= 0) {
+                if (appendStart >= 0) {
+                    notifyItemRangeInserted(appendStart, size - appendStart);
+                    appendStart = -1;
+                }
+                updateMessage(chatMessage);
+                continue;
+            }
+            if (size == 0 || messages.compare(size - 1, chatMessage) <= 0) {
+                if (appendStart < 0) {
+                    appendStart = size;
+                }
+                messages.insert(size, chatMessage);
+            } else {
+                if (appendStart >= 0) {
+                    notifyItemRangeInserted(appendStart, size - appendStart);
+                    appendStart = -1;
+                }
+                insertMessage(chatMessage);
+            }
+        }
+        if (appendStart >= 0) {
+            notifyItemRangeInserted(appendStart, messages.size() - appendStart);
+        }
+    }
+
+    /**
+     * Inserts a page of older messages in front of the loaded ones.
+     *
+     * @param page The page to insert, ordered by timestamp and older than every loaded message.
+     */
+    public void prependMessages(List<ChatMessage> page) {
+        if (!messages.isEmpty() && !page.isEmpty()
+                && messages.compare(0, page.get(page.size() - 1)) <= 0) {
+            addMessages(page);
+            return;
+        }
+        messages.insertAll(0, page);
+        notifyItemRangeInserted(0, page.size());
+    }
+
+    /**
+     * Drops the oldest messages to keep the in-memory window bounded.
+     *
+     * @param count The number of messages to drop from the start of the list.
+     */
+    public void evictOldest(int count) {
+        messages.removeRange(0, count);
+        notifyItemRangeRemoved(0, count);
+    }
+
+    /**
+     * Drops the newest messages to keep the in-memory window bounded.
+     *
+     * @param count The number of messages to drop from the end of the list.
+     */
+    public void evictNewest(int count) {
+        int start = messages.size() - count;
+        messages.removeRange(start, messages.size());
+        notifyItemRangeRemoved(start, count);
+    }
+
+    /**
+     * Returns the oldest loaded message, used as the cursor for older pages.
+     *
+     * @return The oldest message, or null if none is loaded.
+     */
+    public ChatMessage getOldestMessage() {
+        return messages.isEmpty() ? null : messages.get(0);
+    }
+
+    /**
+     * Returns the newest loaded message, used as the cursor for newer pages.
+     *
+     * @return The newest message, or null if none is loaded.
+     */
+    public ChatMessage getNewestMessage() {
+        return messages.isEmpty() ? null : messages.get(messages.size() - 1);
+    }
+
+    /**
+     * Replaces a message that is already shown, moving it if its timestamp changed.
+     * Messages that are not loaded, for example evicted ones, are ignored.
+     *
+     * @param chatMessage The modified message.
+     */
+    public void updateMessage(ChatMessage chatMessage) {
+        int position = messages.indexOf(chatMessage);
+        if (position >= 0) {
+            messages.set(position, chatMessage);
+            notifyItemChanged(position);
+            return;
+        }
+        position = messages.indexOfId(chatMessage.id);
+        if (position < 0) {
+            return;
+        }
+        messages.remove(position);
+        int target = messages.insertionPoint(chatMessage);
+        messages.insert(target, chatMessage);
+        notifyItemMoved(position, target);
+        notifyItemChanged(target);
+    }
+
+    /**
+     * Removes a message that is shown.
+     *
+     * @param chatMessage The removed message.
+     */
+    public void removeMessage(ChatMessage chatMessage) {
+        int position = messages.indexOf(chatMessage);
+        if (position < 0) {
+            position = messages.indexOfId(chatMessage.id);
+        }
+        if (position < 0) {
+            return;
+        }
+        messages.remove(position);
+        notifyItemRemoved(position);
+    }
+
+    /**
+     * Updates the receiver's delivered and read cursors, rebinding only the messages whose
+     * state changed.
+     *
+     * @param deliveredUpTo The time up to which the receiver got the messages.
+     * @param readUpTo      The time up to which the receiver read the messages.
+     */
+    public void setReceipts(long deliveredUpTo, long readUpTo) {
+        int start = messages.indexAfter(Math.min(Math.min(this.deliveredUpTo, deliveredUpTo),
+                Math.min(this.readUpTo, readUpTo)));
+        int end = messages.indexAfter(Math.max(Math.max(this.deliveredUpTo, deliveredUpTo),
+                Math.max(this.readUpTo, readUpTo)));
+        this.deliveredUpTo = deliveredUpTo;
+        this.readUpTo = readUpTo;
+        if (end > start) {
+            notifyItemRangeChanged(start, end - start);
+        }
+    }
+
+    /**
+     * Inserts a single message at the position found by binary search.
+     *
+     * @param chatMessage The message to insert.
+     */
+    private void insertMessage(ChatMessage chatMessage) {
+        int position = messages.insertionPoint(chatMessage);
+        messages.insert(position, chatMessage);
+        notifyItemInserted(position);
     }
 
     /**
@@ -45,10 +218,10 @@ public class ChatAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
     public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         if (viewType == VIEW_TYPE_SENT) {
             return new SentMessageViewHolder(ItemContainerSentMessageBinding
-                    .inflate(LayoutInflater.from(parent.getContext()), parent, false));
+                    .inflate(ListRendering.getLayoutInflater(parent.getContext()), parent, false));
         } else {
             return new ReceiverMessageViewHolder(ItemContainerReceivedMessageBinding
-                    .inflate(LayoutInflater.from(parent.getContext()), parent, false));
+                    .inflate(ListRendering.getLayoutInflater(parent.getContext()), parent, false));
         }
     }
 
@@ -60,12 +233,16 @@ public class ChatAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
      */
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        long startNanos = Metrics.start();
+        Metrics.beginSection("ChatAdapter.bind");
         if (getItemViewType(position) == VIEW_TYPE_SENT) {
-            ((SentMessageViewHolder) holder).setData(chatMessages.get(position));
+            ((SentMessageViewHolder) holder).setData(messages, position, deliveredUpTo, readUpTo);
         } else {
             ((ReceiverMessageViewHolder) holder)
-                    .setData(chatMessages.get(position), receiverProfileImage);
+                    .setData(messages, position, receiverUser);
         }
+        Metrics.endSection();
+        Metrics.recordMicrosSince(Metrics.CHAT_BIND_US, startNanos);
     }
 
     /**
@@ -75,7 +252,18 @@ public class ChatAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
      */
     @Override
     public int getItemCount() {
-        return chatMessages.size();
+        return messages.size();
+    }
+
+    /**
+     * Returns the stable ID of the message at the specified position.
+     *
+     * @param position The position of the item within the data set.
+     * @return The ID derived from the message document ID.
+     */
+    @Override
+    public long getItemId(int position) {
+        return ListRendering.getStableId(messages.getId(position));
     }
 
     /**
@@ -87,7 +275,7 @@ public class ChatAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
      */
     @Override
     public int getItemViewType(int position) {
-        if (chatMessages.get(position).senderId.equals(sendId)) {
+        if (messages.getSenderId(position).equals(sendId)) {
             return VIEW_TYPE_SENT;
         } else {
             return VIEW_TYPE_RECEIVED;
@@ -114,11 +302,30 @@ public class ChatAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
         /**
          * Binds chat message data to the sent message view.
          *
-         * @param chatMessage The ChatMessage object containing the message text and date-time.
+         * Stored messages show whether the receiver got or read them, from the receiver's cursors.
+         *
+         * @param messages      The buffer holding the message text, date-time and send status.
+         * @param position      The position of the message in the buffer.
+         * @param deliveredUpTo The time up to which the receiver got the messages.
+         * @param readUpTo      The time up to which the receiver read the messages.
          */
-        void setData(ChatMessage chatMessage) {
-            binding.textMessage.setText(chatMessage.message);
-            binding.textDateTime.setText(chatMessage.dateTime);
+        void setData(MessageBuffer messages, int position, long deliveredUpTo, long readUpTo) {
+            binding.textMessage.setText(messages.getText(),
+                    messages.getTextOffset(position), messages.getTextLength(position));
+            binding.textDateTime.setText(MessageTimeFormatter.format(messages.getTimestamp(position)));
+            int status = messages.getStatus(position);
+            long timestamp = messages.getTimestamp(position);
+            if (status == ChatMessage.STATUS_PENDING) {
+                binding.textStatus.setText(R.string.status_sending);
+            } else if (status == ChatMessage.STATUS_FAILED) {
+                binding.textStatus.setText(R.string.status_failed);
+            } else if (timestamp <= readUpTo) {
+                binding.textStatus.setText(R.string.status_read);
+            } else if (timestamp <= deliveredUpTo) {
+                binding.textStatus.setText(R.string.status_delivered);
+            } else {
+                binding.textStatus.setText(R.string.status_sent);
+            }
         }
     }
 
@@ -133,13 +340,12 @@ public class ChatAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
             binding = itemContainerReceivedMessageBinding;
         }
 
-        void setData(ChatMessage chatMessage, Bitmap receiverProfileImage) {
-            binding.textMessage.setText(chatMessage.message);
-            binding.textDateTime.setText(chatMessage.dateTime);
-
-            if (receiverProfileImage != null) {
-                binding.imageProfile.setImageBitmap(receiverProfileImage);
-            }
+        void setData(MessageBuffer messages, int position, User receiverUser) {
+            binding.textMessage.setText(messages.getText(),
+                    messages.getTextOffset(position), messages.getTextLength(position));
+            binding.textDateTime.setText(MessageTimeFormatter.format(messages.getTimestamp(position)));
+            ImageLoader.getInstance().loadProfileImage(
+                    receiverUser.id, receiverUser.imageRef, receiverUser.image, binding.imageProfile);
         }
     }
 }
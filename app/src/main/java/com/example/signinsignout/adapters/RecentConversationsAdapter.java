@@ -0,0 +1,184 @@
+package com.example.signinsignout.adapters;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.signinsignout.R;
+import com.example.signinsignout.databinding.ItemContainerRecentConversationBinding;
+import com.example.signinsignout.listeners.UserListener;
+import com.example.signinsignout.metrics.Metrics;
+import com.example.signinsignout.models.Conversation;
+import com.example.signinsignout.utilities.ImageLoader;
+import com.example.signinsignout.utilities.ListRendering;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public class RecentConversationsAdapter extends RecyclerView.Adapter<RecentConversationsAdapter.ConversationViewHolder> {
+
+    public static final int VIEW_TYPE_CONVERSATION = R.layout.item_container_recent_conversation;
+
+    private final List<Conversation> conversations = new ArrayList<>();
+    private final UserListener userListener;
+
+    /**
+     * Constructor for the RecentConversationsAdapter.
+     *
+     * Rows have stable IDs derived from the conversation IDs.
+     *
+     * @param userListener The listener notified with the other participant when a conversation is clicked.
+     */
+    public RecentConversationsAdapter(UserListener userListener) {
+        this.userListener = userListener;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Replaces the shown conversations, notifying only the rows that changed.
+     *
+     * @param updated The conversations to show, newest first.
+     */
+    public void setConversations(List<Conversation> updated) {
+        List<Conversation> previous = new ArrayList<>(conversations);
+        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return previous.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return updated.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                return previous.get(oldItemPosition).id.equals(updated.get(newItemPosition).id);
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                Conversation oldConversation = previous.get(oldItemPosition);
+                Conversation newConversation = updated.get(newItemPosition);
+                return Objects.equals(oldConversation.lastMessage, newConversation.lastMessage)
+                        && Objects.equals(oldConversation.dateObject, newConversation.dateObject)
+                        && oldConversation.unreadCount == newConversation.unreadCount
+                        && Objects.equals(oldConversation.otherUser.fname, newConversation.otherUser.fname)
+                        && Objects.equals(oldConversation.otherUser.imageRef, newConversation.otherUser.imageRef);
+            }
+        });
+        conversations.clear();
+        conversations.addAll(updated);
+        diffResult.dispatchUpdatesTo(this);
+    }
+
+    /**
+     * Creates and returns a ConversationViewHolder for the conversation item view.
+     *
+     * @param parent   The parent ViewGroup into which the new View will be added.
+     * @param viewType The type of view to create (unused in this case).
+     * @return A new ConversationViewHolder instance.
+     */
+    @NonNull
+    @Override
+    public ConversationViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return new ConversationViewHolder(ItemContainerRecentConversationBinding
+                .inflate(ListRendering.getLayoutInflater(parent.getContext()), parent, false));
+    }
+
+    /**
+     * Binds the conversation data to the ConversationViewHolder at the specified position.
+     *
+     * @param holder   The ConversationViewHolder to bind data to.
+     * @param position The position of the item within the conversation list.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull ConversationViewHolder holder, int position) {
+        long startNanos = Metrics.start();
+        Metrics.beginSection("RecentConversationsAdapter.bind");
+        holder.setData(conversations.get(position));
+        Metrics.endSection();
+        Metrics.recordMicrosSince(Metrics.CONVERSATIONS_BIND_US, startNanos);
+    }
+
+    /**
+     * Returns the total number of conversations in the list.
+     *
+     * @return The size of the conversation list.
+     */
+    @Override
+    public int getItemCount() {
+        return conversations.size();
+    }
+
+    /**
+     * Returns the view type of conversation rows, unique across the shared view pool.
+     *
+     * @param position The position of the item within the conversation list.
+     * @return VIEW_TYPE_CONVERSATION.
+     */
+    @Override
+    public int getItemViewType(int position) {
+        return VIEW_TYPE_CONVERSATION;
+    }
+
+    /**
+     * Returns the stable ID of the conversation at the specified position.
+     *
+     * @param position The position of the item within the conversation list.
+     * @return The ID derived from the conversation ID.
+     */
+    @Override
+    public long getItemId(int position) {
+        return ListRendering.getStableId(conversations.get(position).id);
+    }
+
+    /**
+     * Notifies the user listener of a clicked row.
+     *
+     * @param position The position of the clicked conversation.
+     */
+    private void onConversationClicked(int position) {
+        userListener.onUserClicked(conversations.get(position).otherUser);
+    }
+
+    /**
+     * ViewHolder class for displaying a conversation summary in the recent chats list.
+     *
+     * The click listener is set once and resolves the adapter the row is bound to, since rows
+     * are shared between lists through the recycled view pool.
+     */
+    static class ConversationViewHolder extends RecyclerView.ViewHolder {
+        private final ItemContainerRecentConversationBinding binding;
+
+        ConversationViewHolder(ItemContainerRecentConversationBinding itemContainerRecentConversationBinding) {
+            super(itemContainerRecentConversationBinding.getRoot());
+            binding = itemContainerRecentConversationBinding;
+            binding.getRoot().setOnClickListener(v -> {
+                int position = getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION
+                        && getBindingAdapter() instanceof RecentConversationsAdapter) {
+                    ((RecentConversationsAdapter) getBindingAdapter()).onConversationClicked(position);
+                }
+            });
+        }
+
+        void setData(Conversation conversation) {
+            binding.textName.setText(conversation.otherUser.fname);
+            binding.textRecentMessage.setText(conversation.lastMessage);
+            if (conversation.unreadCount > 0) {
+                binding.textUnreadCount.setText(String.valueOf(conversation.unreadCount));
+                binding.textUnreadCount.setVisibility(View.VISIBLE);
+            } else {
+                binding.textUnreadCount.setVisibility(View.GONE);
+            }
+            ImageLoader.getInstance().loadProfileImage(conversation.otherUser.id,
+                    conversation.otherUser.imageRef, null, binding.imageProfile);
+        }
+    }
+}
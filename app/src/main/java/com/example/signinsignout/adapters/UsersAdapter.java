@@ -1,36 +1,61 @@
 package com.example.signinsignout.adapters;
 
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.util.Base64;
-import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.signinsignout.R;
 import com.example.signinsignout.databinding.ItemContainerUserBinding;
 import com.example.signinsignout.listeners.UserListener;
+import com.example.signinsignout.metrics.Metrics;
 import com.example.signinsignout.models.User;
+import com.example.signinsignout.utilities.ImageLoader;
+import com.example.signinsignout.utilities.ListRendering;
 
 import java.util.List;
 
 public class UsersAdapter extends RecyclerView.Adapter<UsersAdapter.UserViewHolder>{
 
+    public static final int VIEW_TYPE_USER = R.layout.item_container_user;
+
     private final List<User> users;
     private final UserListener userListener;
 
     /**
      * Constructor for the UsersAdapter.
      *
+     * Rows have stable IDs derived from the user document IDs.
+     *
      * @param users        The list of User objects to be displayed.
      * @param userListener The listener for user click events.
      */
     public UsersAdapter(List<User> users, UserListener userListener) {
         this.users = users;
         this.userListener = userListener;
+        setHasStableIds(true);
+    }
+
+
+    /**
+     * Appends a page of users to the list.
+     *
+     * @param page The users to append.
+     */
+    public void addUsers(List<User> page) {
+        int start = users.size();
+        users.addAll(page);
+        notifyItemRangeInserted(start, page.size());
     }
 
+    /**
+     * Removes every user from the list, for example when a new search starts.
+     */
+    public void clearUsers() {
+        int count = users.size();
+        users.clear();
+        notifyItemRangeRemoved(0, count);
+    }
 
     /**
      * Creates and returns a UserViewHolder for the user item view.
@@ -44,7 +69,7 @@ public class UsersAdapter extends RecyclerView.Adapter<UsersAdapter.UserViewHold
     public UserViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
 
         ItemContainerUserBinding itemContainerUserBinding = ItemContainerUserBinding
-                .inflate(LayoutInflater.from(parent.getContext()),parent,false);
+                .inflate(ListRendering.getLayoutInflater(parent.getContext()),parent,false);
         return new UserViewHolder(itemContainerUserBinding);
     }
 
@@ -56,8 +81,11 @@ public class UsersAdapter extends RecyclerView.Adapter<UsersAdapter.UserViewHold
      */
     @Override
     public void onBindViewHolder(@NonNull UserViewHolder holder, int position) {
+        long startNanos = Metrics.start();
+        Metrics.beginSection("UsersAdapter.bind");
         holder.setUserData(users.get(position));
-
+        Metrics.endSection();
+        Metrics.recordMicrosSince(Metrics.USERS_BIND_US, startNanos);
     }
 
     /**
@@ -70,10 +98,44 @@ public class UsersAdapter extends RecyclerView.Adapter<UsersAdapter.UserViewHold
         return users.size();
     }
 
+    /**
+     * Returns the view type of user rows, unique across the shared view pool.
+     *
+     * @param position The position of the item within the user list.
+     * @return VIEW_TYPE_USER.
+     */
+    @Override
+    public int getItemViewType(int position) {
+        return VIEW_TYPE_USER;
+    }
+
+    /**
+     * Returns the stable ID of the user at the specified position.
+     *
+     * @param position The position of the item within the user list.
+     * @return The ID derived from the user's document ID.
+     */
+    @Override
+    public long getItemId(int position) {
+        return ListRendering.getStableId(users.get(position).id);
+    }
+
+    /**
+     * Notifies the user listener of a clicked row.
+     *
+     * @param position The position of the clicked user.
+     */
+    private void onUserClicked(int position) {
+        userListener.onUserClicked(users.get(position));
+    }
+
     /**
      * ViewHolder class for displaying user details in the user list.
+     *
+     * The click listener is set once and resolves the adapter the row is bound to, since rows
+     * are shared between lists through the recycled view pool.
      */
-    class UserViewHolder extends RecyclerView.ViewHolder{
+    static class UserViewHolder extends RecyclerView.ViewHolder{
         ItemContainerUserBinding binding;
 
 
@@ -81,27 +143,19 @@ public class UsersAdapter extends RecyclerView.Adapter<UsersAdapter.UserViewHold
             super(itemContainerUserBinding.getRoot());
 
             binding = itemContainerUserBinding;
+            binding.getRoot().setOnClickListener(v -> {
+                int position = getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION && getBindingAdapter() instanceof UsersAdapter) {
+                    ((UsersAdapter) getBindingAdapter()).onUserClicked(position);
+                }
+            });
         }
 
         void setUserData(User user){
             binding.textName.setText(user.fname);
             binding.textEmail.setText(user.email);
-            binding.imageProfile.setImageBitmap(getUserImage(user.image));
-
-            binding.getRoot().setOnClickListener(y -> userListener.onUserClicked(user));
+            ImageLoader.getInstance().loadProfileImage(user.id, user.imageRef, user.image, binding.imageProfile);
         }
     }
 
-    /**
-     * Decodes a Base64 encoded string into a Bitmap representing the user's profile image.
-     *
-     * @param encodedImage The Base64 encoded string of the image.
-     * @return The decoded Bitmap image.
-     */
-    private Bitmap getUserImage(String encodedImage){
-        byte[] bytes = Base64.decode(encodedImage,Base64.DEFAULT);
-
-        return BitmapFactory.decodeByteArray(bytes,0,bytes.length);
-    }
-
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.example.signinsignout.database;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * SQLite database holding the local copy of chat data.
+ *
+ * The database is a cache of Firestore, so upgrades drop and recreate the tables.
+ */
+public class ChatDatabase extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "chat.db";
+    private static final int DATABASE_VERSION = 3;
+
+    /** Table holding the messages of every cached conversation. */
+    public static final String TABLE_MESSAGES = "messages";
+
+    public static final String COLUMN_ID = "id";
+    public static final String COLUMN_CONVERSATION_ID = "conversation_id";
+    public static final String COLUMN_SENDER_ID = "sender_id";
+    public static final String COLUMN_RECEIVER_ID = "receiver_id";
+    public static final String COLUMN_MESSAGE = "message";
+    public static final String COLUMN_TIMESTAMP = "timestamp";
+
+    /** Table holding the local summary and sync position of every cached conversation. */
+    public static final String TABLE_CONVERSATIONS = "conversations";
+
+    public static final String COLUMN_OTHER_USER_ID = "other_user_id";
+    public static final String COLUMN_OTHER_USER_NAME = "other_user_name";
+    public static final String COLUMN_OTHER_USER_IMAGE_REF = "other_user_image_ref";
+    public static final String COLUMN_LAST_MESSAGE = "last_message";
+    public static final String COLUMN_LAST_SENDER_ID = "last_sender_id";
+    public static final String COLUMN_UNREAD_COUNT = "unread_count";
+    public static final String COLUMN_SYNCED_TIMESTAMP = "synced_timestamp";
+
+    /** Table holding the profiles of users seen in the directory or opened in a chat. */
+    public static final String TABLE_USERS = "users";
+
+    public static final String COLUMN_FIRST_NAME = "first_name";
+    public static final String COLUMN_LAST_NAME = "last_name";
+    public static final String COLUMN_EMAIL = "email";
+    public static final String COLUMN_IMAGE = "image";
+    public static final String COLUMN_IMAGE_REF = "image_ref";
+
+    private static ChatDatabase instance;
+
+    /**
+     * Returns the process-wide database helper.
+     *
+     * @param context Any context; the application context is kept.
+     * @return The shared ChatDatabase.
+     */
+    public static synchronized ChatDatabase getInstance(Context context) {
+        if (instance == null) {
+            instance = new ChatDatabase(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ChatDatabase(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    /**
+     * Creates the messages table with its (conversation, timestamp) index, the conversations
+     * table and the users table.
+     *
+     * @param db The database being created.
+     */
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_MESSAGES + " ("
+                + COLUMN_ID + " TEXT PRIMARY KEY, "
+                + COLUMN_CONVERSATION_ID + " TEXT NOT NULL, "
+                + COLUMN_SENDER_ID + " TEXT, "
+                + COLUMN_RECEIVER_ID + " TEXT, "
+                + COLUMN_MESSAGE + " TEXT, "
+                + COLUMN_TIMESTAMP + " INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX index_messages_conversation_timestamp ON " + TABLE_MESSAGES
+                + " (" + COLUMN_CONVERSATION_ID + ", " + COLUMN_TIMESTAMP + ", " + COLUMN_ID + ")");
+        db.execSQL("CREATE TABLE " + TABLE_CONVERSATIONS + " ("
+                + COLUMN_ID + " TEXT PRIMARY KEY, "
+                + COLUMN_OTHER_USER_ID + " TEXT, "
+                + COLUMN_OTHER_USER_NAME + " TEXT, "
+                + COLUMN_OTHER_USER_IMAGE_REF + " TEXT, "
+                + COLUMN_LAST_MESSAGE + " TEXT, "
+                + COLUMN_LAST_SENDER_ID + " TEXT, "
+                + COLUMN_TIMESTAMP + " INTEGER, "
+                + COLUMN_UNREAD_COUNT + " INTEGER NOT NULL DEFAULT 0, "
+                + COLUMN_SYNCED_TIMESTAMP + " INTEGER)");
+        db.execSQL("CREATE INDEX index_conversations_timestamp ON " + TABLE_CONVERSATIONS
+                + " (" + COLUMN_TIMESTAMP + ")");
+        db.execSQL("CREATE TABLE " + TABLE_USERS + " ("
+                + COLUMN_ID + " TEXT PRIMARY KEY, "
+                + COLUMN_FIRST_NAME + " TEXT, "
+                + COLUMN_LAST_NAME + " TEXT, "
+                + COLUMN_EMAIL + " TEXT, "
+                + COLUMN_IMAGE + " TEXT, "
+                + COLUMN_IMAGE_REF + " TEXT)");
+    }
+
+    /**
+     * Deletes every cached row, so nothing of a signed-out user is left for the next one.
+     * Must not be called on the main thread.
+     */
+    public void clear() {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_MESSAGES, null, null);
+            db.delete(TABLE_CONVERSATIONS, null, null);
+            db.delete(TABLE_USERS, null, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Drops the cached tables and recreates them.
+     *
+     * @param db         The database being upgraded.
+     * @param oldVersion The version on disk.
+     * @param newVersion The version the app expects.
+     */
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_MESSAGES);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_CONVERSATIONS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_USERS);
+        onCreate(db);
+    }
+}
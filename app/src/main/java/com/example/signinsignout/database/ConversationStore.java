@@ -0,0 +1,183 @@
+package com.example.signinsignout.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.signinsignout.models.ChatMessage;
+import com.example.signinsignout.models.Conversation;
+import com.example.signinsignout.models.User;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Persistent store for conversation summaries and the position each conversation is
+ * synced to.
+ *
+ * All methods block on disk and must be called off the main thread.
+ */
+public class ConversationStore {
+
+    private static final String[] SUMMARY_COLUMNS = {
+            ChatDatabase.COLUMN_ID,
+            ChatDatabase.COLUMN_OTHER_USER_ID,
+            ChatDatabase.COLUMN_OTHER_USER_NAME,
+            ChatDatabase.COLUMN_OTHER_USER_IMAGE_REF,
+            ChatDatabase.COLUMN_LAST_MESSAGE,
+            ChatDatabase.COLUMN_LAST_SENDER_ID,
+            ChatDatabase.COLUMN_TIMESTAMP,
+            ChatDatabase.COLUMN_UNREAD_COUNT
+    };
+
+    private static final String WHERE_ID = ChatDatabase.COLUMN_ID + " = ?";
+
+    private final ChatDatabase chatDatabase;
+
+    /**
+     * Constructor for the ConversationStore.
+     *
+     * @param context Any context; the shared database helper is used.
+     */
+    public ConversationStore(Context context) {
+        chatDatabase = ChatDatabase.getInstance(context);
+    }
+
+    /**
+     * Records a message received while the conversation was not open.
+     *
+     * The summary takes the message as its last message and its unread count goes up by one.
+     * The sync position is left alone, so the gap before the message is still fetched.
+     *
+     * @param conversationId The conversation the message belongs to.
+     * @param sender         The sender, with the name and image reference from the payload.
+     * @param chatMessage    The received message.
+     */
+    public void putIncomingMessage(String conversationId, User sender, ChatMessage chatMessage) {
+        SQLiteDatabase db = chatDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            values.put(ChatDatabase.COLUMN_OTHER_USER_ID, sender.id);
+            values.put(ChatDatabase.COLUMN_OTHER_USER_NAME, sender.fname);
+            values.put(ChatDatabase.COLUMN_OTHER_USER_IMAGE_REF, sender.imageRef);
+            values.put(ChatDatabase.COLUMN_LAST_MESSAGE, chatMessage.message);
+            values.put(ChatDatabase.COLUMN_LAST_SENDER_ID, chatMessage.senderId);
+            values.put(ChatDatabase.COLUMN_TIMESTAMP, chatMessage.timestamp);
+            int updated = db.update(ChatDatabase.TABLE_CONVERSATIONS, values, WHERE_ID,
+                    new String[]{conversationId});
+            if (updated == 0) {
+                values.put(ChatDatabase.COLUMN_ID, conversationId);
+                values.put(ChatDatabase.COLUMN_UNREAD_COUNT, 1);
+                db.insert(ChatDatabase.TABLE_CONVERSATIONS, null, values);
+            } else {
+                db.execSQL("UPDATE " + ChatDatabase.TABLE_CONVERSATIONS + " SET "
+                        + ChatDatabase.COLUMN_UNREAD_COUNT + " = " + ChatDatabase.COLUMN_UNREAD_COUNT
+                        + " + 1 WHERE " + WHERE_ID, new Object[]{conversationId});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Replaces the cached summaries with the ones read from Firestore.
+     *
+     * @param conversations The summaries, seen from the signed-in user.
+     */
+    public void putConversations(List<Conversation> conversations) {
+        SQLiteDatabase db = chatDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            for (Conversation conversation : conversations) {
+                values.clear();
+                values.put(ChatDatabase.COLUMN_OTHER_USER_ID, conversation.otherUser.id);
+                values.put(ChatDatabase.COLUMN_OTHER_USER_NAME, conversation.otherUser.fname);
+                values.put(ChatDatabase.COLUMN_OTHER_USER_IMAGE_REF, conversation.otherUser.imageRef);
+                values.put(ChatDatabase.COLUMN_LAST_MESSAGE, conversation.lastMessage);
+                values.put(ChatDatabase.COLUMN_LAST_SENDER_ID, conversation.lastSenderId);
+                values.put(ChatDatabase.COLUMN_TIMESTAMP,
+                        conversation.dateObject != null ? conversation.dateObject.getTime() : 0);
+                values.put(ChatDatabase.COLUMN_UNREAD_COUNT, conversation.unreadCount);
+                int updated = db.update(ChatDatabase.TABLE_CONVERSATIONS, values, WHERE_ID,
+                        new String[]{conversation.id});
+                if (updated == 0) {
+                    values.put(ChatDatabase.COLUMN_ID, conversation.id);
+                    db.insert(ChatDatabase.TABLE_CONVERSATIONS, null, values);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Reads the most recent cached summaries.
+     *
+     * @param limit The maximum number of conversations.
+     * @return The conversations, newest first.
+     */
+    public List<Conversation> getRecentConversations(int limit) {
+        List<Conversation> conversations = new ArrayList<>();
+        try (Cursor cursor = chatDatabase.getReadableDatabase().query(ChatDatabase.TABLE_CONVERSATIONS,
+                SUMMARY_COLUMNS, ChatDatabase.COLUMN_LAST_MESSAGE + " IS NOT NULL", null, null, null,
+                ChatDatabase.COLUMN_TIMESTAMP + " DESC", String.valueOf(limit))) {
+            while (cursor.moveToNext()) {
+                User otherUser = new User();
+                otherUser.id = cursor.getString(1);
+                otherUser.fname = cursor.getString(2);
+                otherUser.imageRef = cursor.getString(3);
+
+                Conversation conversation = new Conversation();
+                conversation.id = cursor.getString(0);
+                conversation.otherUser = otherUser;
+                conversation.lastMessage = cursor.getString(4);
+                conversation.lastSenderId = cursor.getString(5);
+                conversation.dateObject = new Date(cursor.getLong(6));
+                conversation.unreadCount = cursor.getLong(7);
+                conversations.add(conversation);
+            }
+        }
+        return conversations;
+    }
+
+    /**
+     * Reads the timestamp up to which a conversation was synced by the live listener.
+     *
+     * @param conversationId The conversation to read.
+     * @return The synced timestamp, or null if the conversation was never synced.
+     */
+    public Date getSyncedTimestamp(String conversationId) {
+        try (Cursor cursor = chatDatabase.getReadableDatabase().query(ChatDatabase.TABLE_CONVERSATIONS,
+                new String[]{ChatDatabase.COLUMN_SYNCED_TIMESTAMP}, WHERE_ID,
+                new String[]{conversationId}, null, null, null)) {
+            if (cursor.moveToFirst() && !cursor.isNull(0)) {
+                return new Date(cursor.getLong(0));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records the timestamp up to which a conversation was synced by the live listener.
+     *
+     * @param conversationId  The conversation that was synced.
+     * @param syncedTimestamp The timestamp of the newest synced message.
+     */
+    public void setSyncedTimestamp(String conversationId, Date syncedTimestamp) {
+        SQLiteDatabase db = chatDatabase.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(ChatDatabase.COLUMN_SYNCED_TIMESTAMP, syncedTimestamp.getTime());
+        int updated = db.update(ChatDatabase.TABLE_CONVERSATIONS, values, WHERE_ID,
+                new String[]{conversationId});
+        if (updated == 0) {
+            values.put(ChatDatabase.COLUMN_ID, conversationId);
+            db.insert(ChatDatabase.TABLE_CONVERSATIONS, null, values);
+        }
+    }
+}
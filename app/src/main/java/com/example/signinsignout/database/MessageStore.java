@@ -0,0 +1,159 @@
+package com.example.signinsignout.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.signinsignout.models.ChatMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Persistent store for conversation messages, indexed by (conversation, timestamp).
+ *
+ * All methods block on disk and must be called off the main thread.
+ */
+public class MessageStore {
+
+    private static final String[] COLUMNS = {
+            ChatDatabase.COLUMN_ID,
+            ChatDatabase.COLUMN_SENDER_ID,
+            ChatDatabase.COLUMN_RECEIVER_ID,
+            ChatDatabase.COLUMN_MESSAGE,
+            ChatDatabase.COLUMN_TIMESTAMP
+    };
+
+    private static final String ORDER_ASCENDING =
+            ChatDatabase.COLUMN_TIMESTAMP + " ASC, " + ChatDatabase.COLUMN_ID + " ASC";
+    private static final String ORDER_DESCENDING =
+            ChatDatabase.COLUMN_TIMESTAMP + " DESC, " + ChatDatabase.COLUMN_ID + " DESC";
+
+    private final ChatDatabase chatDatabase;
+
+    /**
+     * Constructor for the MessageStore.
+     *
+     * @param context Any context; the shared database helper is used.
+     */
+    public MessageStore(Context context) {
+        chatDatabase = ChatDatabase.getInstance(context);
+    }
+
+    /**
+     * Inserts or replaces messages of a conversation in one transaction.
+     *
+     * @param conversationId The conversation the messages belong to.
+     * @param chatMessages   The messages to store.
+     */
+    public void putMessages(String conversationId, List<ChatMessage> chatMessages) {
+        SQLiteDatabase db = chatDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            for (ChatMessage chatMessage : chatMessages) {
+                values.clear();
+                values.put(ChatDatabase.COLUMN_ID, chatMessage.id);
+                values.put(ChatDatabase.COLUMN_CONVERSATION_ID, conversationId);
+                values.put(ChatDatabase.COLUMN_SENDER_ID, chatMessage.senderId);
+                values.put(ChatDatabase.COLUMN_RECEIVER_ID, chatMessage.receiverID);
+                values.put(ChatDatabase.COLUMN_MESSAGE, chatMessage.message);
+                values.put(ChatDatabase.COLUMN_TIMESTAMP, chatMessage.timestamp);
+                db.insertWithOnConflict(ChatDatabase.TABLE_MESSAGES, null, values,
+                        SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Deletes messages in one transaction.
+     *
+     * @param chatMessages The messages to delete; only their IDs are used.
+     */
+    public void deleteMessages(List<ChatMessage> chatMessages) {
+        SQLiteDatabase db = chatDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (ChatMessage chatMessage : chatMessages) {
+                db.delete(ChatDatabase.TABLE_MESSAGES, ChatDatabase.COLUMN_ID + " = ?",
+                        new String[]{chatMessage.id});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Reads the newest messages of a conversation.
+     *
+     * @param conversationId The conversation to read.
+     * @param limit          The maximum number of messages.
+     * @return The messages, oldest first.
+     */
+    public List<ChatMessage> getLatest(String conversationId, int limit) {
+        List<ChatMessage> page = query(ChatDatabase.COLUMN_CONVERSATION_ID + " = ?",
+                new String[]{conversationId}, ORDER_DESCENDING, limit);
+        Collections.reverse(page);
+        return page;
+    }
+
+    /**
+     * Reads the messages just before a message.
+     *
+     * @param conversationId The conversation to read.
+     * @param oldest         The cursor message.
+     * @param limit          The maximum number of messages.
+     * @return The messages, oldest first.
+     */
+    public List<ChatMessage> getOlder(String conversationId, ChatMessage oldest, int limit) {
+        String timestamp = String.valueOf(oldest.timestamp);
+        List<ChatMessage> page = query(ChatDatabase.COLUMN_CONVERSATION_ID + " = ? AND ("
+                        + ChatDatabase.COLUMN_TIMESTAMP + " < ? OR ("
+                        + ChatDatabase.COLUMN_TIMESTAMP + " = ? AND " + ChatDatabase.COLUMN_ID + " < ?))",
+                new String[]{conversationId, timestamp, timestamp, oldest.id}, ORDER_DESCENDING, limit);
+        Collections.reverse(page);
+        return page;
+    }
+
+    /**
+     * Reads the messages just after a message.
+     *
+     * @param conversationId The conversation to read.
+     * @param newest         The cursor message.
+     * @param limit          The maximum number of messages.
+     * @return The messages, oldest first.
+     */
+    public List<ChatMessage> getNewer(String conversationId, ChatMessage newest, int limit) {
+        String timestamp = String.valueOf(newest.timestamp);
+        return query(ChatDatabase.COLUMN_CONVERSATION_ID + " = ? AND ("
+                        + ChatDatabase.COLUMN_TIMESTAMP + " > ? OR ("
+                        + ChatDatabase.COLUMN_TIMESTAMP + " = ? AND " + ChatDatabase.COLUMN_ID + " > ?))",
+                new String[]{conversationId, timestamp, timestamp, newest.id}, ORDER_ASCENDING, limit);
+    }
+
+    /**
+     * Runs a message query and maps the rows to ChatMessages.
+     */
+    private List<ChatMessage> query(String selection, String[] selectionArgs, String orderBy, int limit) {
+        List<ChatMessage> chatMessages = new ArrayList<>();
+        try (Cursor cursor = chatDatabase.getReadableDatabase().query(ChatDatabase.TABLE_MESSAGES,
+                COLUMNS, selection, selectionArgs, null, null, orderBy, String.valueOf(limit))) {
+            while (cursor.moveToNext()) {
+                ChatMessage chatMessage = new ChatMessage();
+                chatMessage.id = cursor.getString(0);
+                chatMessage.senderId = cursor.getString(1);
+                chatMessage.receiverID = cursor.getString(2);
+                chatMessage.message = cursor.getString(3);
+                chatMessage.timestamp = cursor.getLong(4);
+                chatMessages.add(chatMessage);
+            }
+        }
+        return chatMessages;
+    }
+}
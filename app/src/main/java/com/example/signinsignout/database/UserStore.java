@@ -0,0 +1,90 @@
+package com.example.signinsignout.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.signinsignout.models.User;
+
+import java.util.List;
+
+/**
+ * Persistent store for user profiles, so a chat can be opened by user ID alone.
+ *
+ * All methods block on disk and must be called off the main thread.
+ */
+public class UserStore {
+
+    private static final String[] USER_COLUMNS = {
+            ChatDatabase.COLUMN_ID,
+            ChatDatabase.COLUMN_FIRST_NAME,
+            ChatDatabase.COLUMN_LAST_NAME,
+            ChatDatabase.COLUMN_EMAIL,
+            ChatDatabase.COLUMN_IMAGE,
+            ChatDatabase.COLUMN_IMAGE_REF
+    };
+
+    private static final String WHERE_ID = ChatDatabase.COLUMN_ID + " = ?";
+
+    private final ChatDatabase chatDatabase;
+
+    /**
+     * Constructor for the UserStore.
+     *
+     * @param context Any context; the shared database helper is used.
+     */
+    public UserStore(Context context) {
+        chatDatabase = ChatDatabase.getInstance(context);
+    }
+
+    /**
+     * Inserts or replaces users in one transaction.
+     *
+     * @param users The users to store.
+     */
+    public void putUsers(List<User> users) {
+        SQLiteDatabase db = chatDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            for (User user : users) {
+                values.clear();
+                values.put(ChatDatabase.COLUMN_ID, user.id);
+                values.put(ChatDatabase.COLUMN_FIRST_NAME, user.fname);
+                values.put(ChatDatabase.COLUMN_LAST_NAME, user.lname);
+                values.put(ChatDatabase.COLUMN_EMAIL, user.email);
+                values.put(ChatDatabase.COLUMN_IMAGE, user.image);
+                values.put(ChatDatabase.COLUMN_IMAGE_REF, user.imageRef);
+                db.insertWithOnConflict(ChatDatabase.TABLE_USERS, null, values,
+                        SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Reads a user.
+     *
+     * @param userId The user's document ID.
+     * @return The user, or null if it is not stored.
+     */
+    public User getUser(String userId) {
+        try (Cursor cursor = chatDatabase.getReadableDatabase().query(ChatDatabase.TABLE_USERS,
+                USER_COLUMNS, WHERE_ID, new String[]{userId}, null, null, null)) {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            User user = new User();
+            user.id = cursor.getString(0);
+            user.fname = cursor.getString(1);
+            user.lname = cursor.getString(2);
+            user.email = cursor.getString(3);
+            user.image = cursor.getString(4);
+            user.imageRef = cursor.getString(5);
+            return user;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.signinsignout.firebase;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content-addressed blob store for profile images in Firebase Storage.
+ *
+ * Each image is stored once under the SHA-256 hash of its full variant, with a small thumbnail
+ * next to it. Documents only keep the hash as a reference.
+ */
+public class ImageStore {
+
+    /** Variant name of the small image used in lists. */
+    public static final String VARIANT_THUMBNAIL = "thumbnail";
+
+    /** Variant name of the full-size image. */
+    public static final String VARIANT_FULL = "full";
+
+    /** Width of the thumbnail variant, in pixels. */
+    public static final int THUMBNAIL_WIDTH = 150;
+
+    /** Width of the full variant, in pixels. */
+    public static final int FULL_WIDTH = 720;
+
+    private static final String IMAGES_PATH = "images";
+    private static final String CONTENT_TYPE = "image/webp";
+    private static final long MAX_DOWNLOAD_BYTES = 5 * 1024 * 1024;
+
+    private final StorageReference imagesReference;
+
+    /**
+     * Initializes the store on the default Firebase Storage bucket.
+     */
+    public ImageStore() {
+        imagesReference = FirebaseStorage.getInstance().getReference().child(IMAGES_PATH);
+    }
+
+    /**
+     * Uploads both variants of an image.
+     *
+     * @param thumbnail The encoded thumbnail variant.
+     * @param full      The encoded full variant.
+     * @return A task resolving to the image reference to store in documents.
+     */
+    public Task<String> upload(byte[] thumbnail, byte[] full) {
+        String imageRef = hash(full);
+        StorageMetadata metadata = new StorageMetadata.Builder()
+                .setContentType(CONTENT_TYPE)
+                .setCacheControl("public, max-age=31536000, immutable")
+                .build();
+        Task<?> thumbnailUpload = getReference(imageRef, VARIANT_THUMBNAIL).putBytes(thumbnail, metadata);
+        Task<?> fullUpload = getReference(imageRef, VARIANT_FULL).putBytes(full, metadata);
+        return Tasks.whenAll(thumbnailUpload, fullUpload).continueWith(task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            return imageRef;
+        });
+    }
+
+    /**
+     * Downloads one variant of an image.
+     *
+     * @param imageRef The image reference stored in the document.
+     * @param variant  Either {@link #VARIANT_THUMBNAIL} or {@link #VARIANT_FULL}.
+     * @return A task resolving to the encoded image bytes.
+     */
+    public Task<byte[]> download(String imageRef, String variant) {
+        return getReference(imageRef, variant).getBytes(MAX_DOWNLOAD_BYTES);
+    }
+
+    /**
+     * Returns the storage location of one variant of an image.
+     */
+    private StorageReference getReference(String imageRef, String variant) {
+        return imagesReference.child(imageRef).child(variant);
+    }
+
+    /**
+     * Computes the content address of an image.
+     *
+     * @param bytes The encoded image.
+     * @return The lowercase hex SHA-256 of the bytes.
+     */
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
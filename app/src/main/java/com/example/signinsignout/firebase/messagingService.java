@@ -4,33 +4,113 @@ import android.util.Log;
 
 import androidx.annotation.NonNull;
 
+import com.example.signinsignout.database.ConversationStore;
+import com.example.signinsignout.database.MessageStore;
+import com.example.signinsignout.models.ChatMessage;
+import com.example.signinsignout.models.Session;
+import com.example.signinsignout.models.User;
+import com.example.signinsignout.repositories.DeliveryReceiptNotifier;
+import com.example.signinsignout.utilities.Constants;
+import com.example.signinsignout.utilities.PreferenceManager;
+import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.messaging.FirebaseMessagingService;
 import com.google.firebase.messaging.RemoteMessage;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * Service class to handle Firebase Cloud Messaging (FCM) events.
+ *
+ * Chat pushes carry the message in their data payload, which is written straight into the
+ * local message store and conversation summaries, so opening the chat afterwards needs no
+ * network fetch. The payload uses the Firestore field names: messageId, conversationId,
+ * senderId, receiverId, message, timestamp (epoch millis), and the sender's First name and
+ * imageRef. Chat pushes also move the user's delivered cursor of the conversation forward,
+ * coalesced by the delivery receipt notifier.
  */
 public class messagingService extends FirebaseMessagingService {
 
     /**
      * Called when a new FCM registration token is generated.
      *
+     * When a user is signed in, the token is saved to their user document, then to the
+     * preferences, which only ever hold a token known to be saved for the signed-in user.
+     *
      * @param token The new registration token.
      */
     @Override
     public void onNewToken(@NonNull String token) {
         super.onNewToken(token);
-        Log.d("FCM", "Token: " + token);
+        PreferenceManager preferenceManager = new PreferenceManager(getApplicationContext());
+        Session session = preferenceManager.getSession();
+        if (session != null && session.userId != null) {
+            FirebaseFirestore.getInstance().collection(Constants.KEY_COLLECTION_USERS)
+                    .document(session.userId)
+                    .update(Constants.KEY_FCM_TOKEN, token)
+                    .addOnSuccessListener(unused -> preferenceManager.putString(Constants.KEY_FCM_TOKEN, token))
+                    .addOnFailureListener(e -> Log.w("FCM", "Unable to save token", e));
+        }
     }
 
     /**
      * Called when a new message is received from FCM.
      *
+     * Runs on a background thread, so the message is written to the local stores directly.
+     * Only messages addressed to the signed-in user are stored, so a push for an account that
+     * signed out never reaches the next user's cache. The sender is told the message arrived
+     * through the conversation's delivered cursor.
+     *
      * @param message The remote message received.
      */
     @Override
     public void onMessageReceived(@NonNull RemoteMessage message) {
         super.onMessageReceived(message);
-        Log.d("FCM", "460 Message: " + message.getNotification().getBody());
+        ChatMessage chatMessage = toChatMessage(message.getData());
+        Session session = new PreferenceManager(getApplicationContext()).getSession();
+        if (chatMessage != null && session != null && session.userId != null
+                && session.userId.equals(chatMessage.receiverID)) {
+            String conversationId = message.getData().get(Constants.KEY_CONVERSATION_ID);
+            User sender = new User();
+            sender.id = chatMessage.senderId;
+            sender.fname = message.getData().get(Constants.KEY_FIRST_NAME);
+            sender.imageRef = message.getData().get(Constants.KEY_IMAGE_REF);
+
+            new MessageStore(getApplicationContext())
+                    .putMessages(conversationId, Collections.singletonList(chatMessage));
+            new ConversationStore(getApplicationContext())
+                    .putIncomingMessage(conversationId, sender, chatMessage);
+            DeliveryReceiptNotifier.getInstance()
+                    .onMessageDelivered(session.userId, conversationId, chatMessage.timestamp);
+        }
+        if (message.getNotification() != null) {
+            Log.d("FCM", "Message: " + message.getNotification().getBody());
+        }
+    }
+
+    /**
+     * Maps a chat data payload to a ChatMessage.
+     *
+     * @param data The data payload of the push.
+     * @return The mapped ChatMessage, or null if the payload is not a chat message.
+     */
+    public static ChatMessage toChatMessage(Map<String, String> data) {
+        String messageId = data.get(Constants.KEY_MESSAGE_ID);
+        String conversationId = data.get(Constants.KEY_CONVERSATION_ID);
+        String timestamp = data.get(Constants.KEY_TIMESTAMP);
+        if (messageId == null || conversationId == null || timestamp == null) {
+            return null;
+        }
+        ChatMessage chatMessage = new ChatMessage();
+        chatMessage.id = messageId;
+        chatMessage.senderId = data.get(Constants.KEY_SENDER_ID);
+        chatMessage.receiverID = data.get(Constants.KEY_RECEIVER_ID);
+        chatMessage.message = data.get(Constants.KEY_MESSAGE);
+        try {
+            chatMessage.timestamp = Long.parseLong(timestamp);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return chatMessage;
     }
 }
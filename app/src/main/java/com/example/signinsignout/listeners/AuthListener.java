@@ -0,0 +1,12 @@
+package com.example.signinsignout.listeners;
+
+import com.example.signinsignout.models.Session;
+
+/**
+ * Interface for receiving the outcome of signing in or signing up.
+ */
+public interface AuthListener {
+    void onAuthenticated(Session session);
+
+    void onAuthError(Exception exception);
+}
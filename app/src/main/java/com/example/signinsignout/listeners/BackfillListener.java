@@ -0,0 +1,10 @@
+package com.example.signinsignout.listeners;
+
+/**
+ * Interface for receiving the outcome of a one-time data backfill.
+ */
+public interface BackfillListener {
+    void onBackfillComplete();
+
+    void onBackfillError(Exception exception);
+}
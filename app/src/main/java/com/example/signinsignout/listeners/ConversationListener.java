@@ -0,0 +1,14 @@
+package com.example.signinsignout.listeners;
+
+import com.example.signinsignout.models.Conversation;
+
+import java.util.List;
+
+/**
+ * Interface for receiving the recent conversations of the signed-in user.
+ */
+public interface ConversationListener {
+    void onConversationsChanged(List<Conversation> conversations);
+
+    void onConversationError(Exception exception);
+}
@@ -0,0 +1,12 @@
+package com.example.signinsignout.listeners;
+
+import android.graphics.Bitmap;
+
+/**
+ * Interface for receiving the encoded size variants of a picked image.
+ */
+public interface ImageEncodeListener {
+    void onImageEncoded(Bitmap preview, byte[][] variants);
+
+    void onImageEncodeError(Exception exception);
+}
@@ -0,0 +1,18 @@
+package com.example.signinsignout.listeners;
+
+import com.example.signinsignout.models.ChatMessage;
+
+import java.util.List;
+
+/**
+ * Interface for receiving ordered message updates from a conversation stream.
+ */
+public interface MessageListener {
+    void onMessagesAdded(List<ChatMessage> chatMessages);
+
+    void onMessagesModified(List<ChatMessage> chatMessages);
+
+    void onMessagesRemoved(List<ChatMessage> chatMessages);
+
+    void onMessageError(Exception exception);
+}
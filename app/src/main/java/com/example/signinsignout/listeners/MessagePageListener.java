@@ -0,0 +1,14 @@
+package com.example.signinsignout.listeners;
+
+import com.example.signinsignout.models.ChatMessage;
+
+import java.util.List;
+
+/**
+ * Interface for receiving one page of conversation history.
+ */
+public interface MessagePageListener {
+    void onPageLoaded(List<ChatMessage> chatMessages);
+
+    void onPageError(Exception exception);
+}
@@ -0,0 +1,14 @@
+package com.example.signinsignout.listeners;
+
+import java.util.Date;
+
+/**
+ * Interface for receiving another user's presence and typing state.
+ */
+public interface PresenceListener {
+    void onPresenceChanged(boolean online, Date lastSeen);
+
+    void onTypingChanged(boolean typing);
+
+    void onPresenceError(Exception exception);
+}
@@ -0,0 +1,10 @@
+package com.example.signinsignout.listeners;
+
+/**
+ * Interface for receiving how far the other participant received and read a conversation.
+ */
+public interface ReceiptListener {
+    void onReceiptsChanged(long deliveredUpTo, long readUpTo);
+
+    void onReceiptError(Exception exception);
+}
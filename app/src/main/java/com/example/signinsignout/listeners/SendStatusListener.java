@@ -0,0 +1,14 @@
+package com.example.signinsignout.listeners;
+
+import com.example.signinsignout.models.ChatMessage;
+
+import java.util.List;
+
+/**
+ * Interface for receiving the outcome of outbound message writes.
+ */
+public interface SendStatusListener {
+    void onMessagesSent(List<ChatMessage> chatMessages);
+
+    void onMessagesFailed(List<ChatMessage> chatMessages);
+}
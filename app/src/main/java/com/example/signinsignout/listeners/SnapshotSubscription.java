@@ -0,0 +1,11 @@
+package com.example.signinsignout.listeners;
+
+import com.google.firebase.firestore.ListenerRegistration;
+
+/**
+ * Interface for starting a Firestore snapshot listener, so it can be started again after
+ * it was detached.
+ */
+public interface SnapshotSubscription {
+    ListenerRegistration start();
+}
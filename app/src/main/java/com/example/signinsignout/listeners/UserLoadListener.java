@@ -0,0 +1,12 @@
+package com.example.signinsignout.listeners;
+
+import com.example.signinsignout.models.User;
+
+/**
+ * Interface for receiving a single user resolved by ID.
+ */
+public interface UserLoadListener {
+    void onUserLoaded(User user);
+
+    void onUserError(Exception exception);
+}
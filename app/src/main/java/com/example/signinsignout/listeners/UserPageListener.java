@@ -0,0 +1,15 @@
+package com.example.signinsignout.listeners;
+
+import com.example.signinsignout.models.User;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.List;
+
+/**
+ * Interface for receiving one page of the user directory.
+ */
+public interface UserPageListener {
+    void onUsersLoaded(List<User> users, DocumentSnapshot lastDocument);
+
+    void onUsersError(Exception exception);
+}
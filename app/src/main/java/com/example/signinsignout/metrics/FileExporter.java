@@ -0,0 +1,51 @@
+package com.example.signinsignout.metrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Exporter that appends each snapshot as one line of JSON to a file.
+ *
+ * When the file grows past its size limit it is moved to a ".1" file, replacing the previous
+ * one, so at most twice the limit is kept on disk.
+ */
+public class FileExporter implements MetricsExporter {
+
+    public static final String FILE_NAME = "metrics.jsonl";
+
+    private static final long MAX_FILE_BYTES = 1024 * 1024;
+
+    private final File file;
+
+    /**
+     * Constructor for the FileExporter.
+     *
+     * @param directory The directory the file is written to, usually the app's files directory.
+     */
+    public FileExporter(File directory) {
+        file = new File(directory, FILE_NAME);
+    }
+
+    /**
+     * Appends a snapshot to the file, rotating it first if it is too large.
+     *
+     * @param snapshot The metrics recorded since the process started.
+     * @throws Exception If the file cannot be written.
+     */
+    @Override
+    public void export(MetricsSnapshot snapshot) throws Exception {
+        if (file.length() > MAX_FILE_BYTES) {
+            File previous = new File(file.getPath() + ".1");
+            previous.delete();
+            file.renameTo(previous);
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true),
+                StandardCharsets.UTF_8)) {
+            writer.write(snapshot.toJson().toString());
+            writer.write('\n');
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.signinsignout.metrics;
+
+/**
+ * Histogram of non-negative values with power-of-two buckets.
+ *
+ * Recording is a bucket index and a few additions, so it is cheap enough for bind and parse
+ * paths. Percentiles are reported as the upper bound of their bucket, capped at the largest
+ * recorded value, which keeps them within a factor of two.
+ */
+public class Histogram {
+
+    private static final int BUCKETS = 64;
+
+    private final long[] buckets = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Records a value. Negative values are recorded as zero.
+     *
+     * @param value The value to record.
+     */
+    public synchronized void record(long value) {
+        value = Math.max(0, value);
+        buckets[BUCKETS - Long.numberOfLeadingZeros(value)]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Captures the current state of the histogram.
+     *
+     * @return The snapshot.
+     */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(count, sum, count == 0 ? 0 : min, max,
+                percentile(0.50), percentile(0.95), percentile(0.99));
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding a percentile.
+     *
+     * @param fraction The percentile as a fraction between 0 and 1.
+     * @return The percentile estimate, or 0 if nothing was recorded.
+     */
+    private long percentile(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                long upperBound = i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+                return Math.min(upperBound, max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Immutable state of a histogram at one point in time.
+     */
+    public static class Snapshot {
+        public final long count, sum, min, max, p50, p95, p99;
+
+        /**
+         * Constructor for the Snapshot.
+         *
+         * @param count The number of recorded values.
+         * @param sum   The sum of the recorded values.
+         * @param min   The smallest recorded value.
+         * @param max   The largest recorded value.
+         * @param p50   The median estimate.
+         * @param p95   The 95th percentile estimate.
+         * @param p99   The 99th percentile estimate.
+         */
+        Snapshot(long count, long sum, long min, long max, long p50, long p95, long p99) {
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+        }
+    }
+}
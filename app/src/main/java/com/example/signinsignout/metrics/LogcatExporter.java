@@ -0,0 +1,23 @@
+package com.example.signinsignout.metrics;
+
+import android.util.Log;
+
+/**
+ * Exporter that logs each snapshot as one line of JSON, so it can be collected with
+ * {@code adb logcat -s ChatMetrics}.
+ */
+public class LogcatExporter implements MetricsExporter {
+
+    public static final String TAG = "ChatMetrics";
+
+    /**
+     * Logs a snapshot at info level.
+     *
+     * @param snapshot The metrics recorded since the process started.
+     * @throws Exception If the snapshot cannot be converted to JSON.
+     */
+    @Override
+    public void export(MetricsSnapshot snapshot) throws Exception {
+        Log.i(TAG, snapshot.toJson().toString());
+    }
+}
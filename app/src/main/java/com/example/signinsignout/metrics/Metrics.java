@@ -0,0 +1,231 @@
+package com.example.signinsignout.metrics;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+import android.view.Choreographer;
+
+import com.example.signinsignout.utilities.AppExecutors;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide counters and histograms for the app's hot paths.
+ *
+ * Recording is lock-free for counters and takes a short per-histogram lock for histograms, so
+ * it is safe from any thread and cheap enough for bind and parse paths. Durations carry their
+ * unit in the metric name. Trace sections show up in Perfetto and systrace captures when the
+ * app is traced, and cost almost nothing otherwise. Snapshots are handed to the registered
+ * exporters on AppExecutors.diskIO().
+ */
+public class Metrics {
+
+    /** Name of the counter of documents read from the server. */
+    public static final String FIRESTORE_DOCS_READ = "firestore.docs_read";
+    /** Name of the counter of documents served from the local cache. */
+    public static final String FIRESTORE_DOCS_CACHED = "firestore.docs_cached";
+    /** Prefix of the per-query histograms of documents per result. */
+    public static final String FIRESTORE_DOCS_PER_QUERY = "firestore.docs_per_query.";
+    /** Name of the histogram of message snapshot parse times. */
+    public static final String CHAT_SNAPSHOT_PARSE_US = "chat.snapshot_parse_us";
+    /** Name of the histogram of times from a message snapshot to the frame showing it. */
+    public static final String CHAT_SNAPSHOT_TO_FRAME_MS = "chat.snapshot_to_frame_ms";
+    /** Name of the histogram of chat message bind times. */
+    public static final String CHAT_BIND_US = "chat.bind_us";
+    /** Name of the histogram of user bind times. */
+    public static final String USERS_BIND_US = "users.bind_us";
+    /** Name of the histogram of conversation bind times. */
+    public static final String CONVERSATIONS_BIND_US = "conversations.bind_us";
+    /** Name of the histogram of profile image decode times. */
+    public static final String IMAGE_DECODE_US = "image.decode_us";
+    /** Name of the histogram of times to encode every variant of a picked image. */
+    public static final String IMAGE_ENCODE_MS = "image.encode_ms";
+    /** Name of the histogram of encoded image variant sizes. */
+    public static final String IMAGE_VARIANT_BYTES = "image.variant_bytes";
+    /** Name of the histogram of outbound batch commit times. */
+    public static final String SEND_COMMIT_MS = "send.commit_ms";
+    /** Name of the histogram of times from sending a message to the server acknowledging it. */
+    public static final String SEND_ROUND_TRIP_MS = "send.round_trip_ms";
+
+    private static final String TAG = "Metrics";
+
+    private static final long EXPORT_INTERVAL_MS = 60_000;
+
+    private static final Map<String, AtomicLong> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final List<MetricsExporter> EXPORTERS = new CopyOnWriteArrayList<>();
+
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+    private static final Runnable EXPORT_RUNNABLE = new Runnable() {
+        @Override
+        public void run() {
+            export();
+            MAIN_HANDLER.postDelayed(this, EXPORT_INTERVAL_MS);
+        }
+    };
+
+    private Metrics() {
+    }
+
+    /**
+     * Adds one to a counter.
+     *
+     * @param name The counter's name.
+     */
+    public static void increment(String name) {
+        increment(name, 1);
+    }
+
+    /**
+     * Adds to a counter.
+     *
+     * @param name  The counter's name.
+     * @param delta The amount to add.
+     */
+    public static void increment(String name, long delta) {
+        AtomicLong counter = COUNTERS.get(name);
+        if (counter == null) {
+            counter = COUNTERS.computeIfAbsent(name, key -> new AtomicLong());
+        }
+        counter.addAndGet(delta);
+    }
+
+    /**
+     * Records a value in a histogram.
+     *
+     * @param name  The histogram's name.
+     * @param value The value to record.
+     */
+    public static void record(String name, long value) {
+        Histogram histogram = HISTOGRAMS.get(name);
+        if (histogram == null) {
+            histogram = HISTOGRAMS.computeIfAbsent(name, key -> new Histogram());
+        }
+        histogram.record(value);
+    }
+
+    /**
+     * Returns the current time for measuring a duration.
+     *
+     * @return The monotonic time in nanoseconds.
+     */
+    public static long start() {
+        return SystemClock.elapsedRealtimeNanos();
+    }
+
+    /**
+     * Records the microseconds elapsed since a start time.
+     *
+     * @param name       The histogram's name.
+     * @param startNanos The time returned by {@link #start()}.
+     */
+    public static void recordMicrosSince(String name, long startNanos) {
+        record(name, TimeUnit.NANOSECONDS.toMicros(start() - startNanos));
+    }
+
+    /**
+     * Records the milliseconds elapsed since a start time.
+     *
+     * @param name       The histogram's name.
+     * @param startNanos The time returned by {@link #start()}.
+     */
+    public static void recordMillisSince(String name, long startNanos) {
+        record(name, TimeUnit.NANOSECONDS.toMillis(start() - startNanos));
+    }
+
+    /**
+     * Records the milliseconds from a start time to the next frame being drawn. Must be called
+     * on the main thread, after the change that frame shows has been made.
+     *
+     * @param name       The histogram's name.
+     * @param startNanos The time returned by {@link #start()}.
+     */
+    public static void recordAtNextFrame(String name, long startNanos) {
+        Choreographer.getInstance().postFrameCallback(frameTimeNanos -> recordMillisSince(name, startNanos));
+    }
+
+    /**
+     * Records the documents returned by a query or a listener update.
+     *
+     * @param query     A short, fixed name of the query.
+     * @param documents The number of documents returned, or changed for listener updates.
+     * @param fromCache Whether the documents came from the local cache rather than the server.
+     */
+    public static void recordDocumentsRead(String query, int documents, boolean fromCache) {
+        increment(fromCache ? FIRESTORE_DOCS_CACHED : FIRESTORE_DOCS_READ, documents);
+        record(FIRESTORE_DOCS_PER_QUERY + query, documents);
+    }
+
+    /**
+     * Starts a trace section on the current thread.
+     *
+     * @param name The section's name, at most 127 characters.
+     */
+    public static void beginSection(String name) {
+        Trace.beginSection(name);
+    }
+
+    /**
+     * Ends the trace section last started on the current thread.
+     */
+    public static void endSection() {
+        Trace.endSection();
+    }
+
+    /**
+     * Captures every counter and histogram.
+     *
+     * @return The snapshot.
+     */
+    public static MetricsSnapshot snapshot() {
+        TreeMap<String, Long> counters = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> counter : COUNTERS.entrySet()) {
+            counters.put(counter.getKey(), counter.getValue().get());
+        }
+        TreeMap<String, Histogram.Snapshot> histograms = new TreeMap<>();
+        for (Map.Entry<String, Histogram> histogram : HISTOGRAMS.entrySet()) {
+            histograms.put(histogram.getKey(), histogram.getValue().snapshot());
+        }
+        return new MetricsSnapshot(System.currentTimeMillis(), counters, histograms);
+    }
+
+    /**
+     * Registers an exporter and starts exporting periodically if it is the first one.
+     *
+     * @param exporter The exporter.
+     */
+    public static void addExporter(MetricsExporter exporter) {
+        EXPORTERS.add(exporter);
+        if (EXPORTERS.size() == 1) {
+            MAIN_HANDLER.postDelayed(EXPORT_RUNNABLE, EXPORT_INTERVAL_MS);
+        }
+    }
+
+    /**
+     * Hands a snapshot to every exporter in the background. An exporter that fails is logged
+     * and does not stop the others.
+     */
+    public static void export() {
+        if (EXPORTERS.isEmpty()) {
+            return;
+        }
+        AppExecutors.diskIO().execute(() -> {
+            MetricsSnapshot snapshot = snapshot();
+            for (MetricsExporter exporter : EXPORTERS) {
+                try {
+                    exporter.export(snapshot);
+                } catch (Exception exception) {
+                    Log.w(TAG, "Unable to export metrics", exception);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.signinsignout.metrics;
+
+/**
+ * Destination metrics snapshots are periodically written to.
+ *
+ * Exporters are called on AppExecutors.diskIO(), one snapshot at a time.
+ */
+public interface MetricsExporter {
+
+    /**
+     * Writes a snapshot.
+     *
+     * @param snapshot The metrics recorded since the process started.
+     * @throws Exception If the snapshot could not be written.
+     */
+    void export(MetricsSnapshot snapshot) throws Exception;
+}
@@ -0,0 +1,156 @@
+package com.example.signinsignout.metrics;
+
+import android.app.Activity;
+import android.app.Application;
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.TypedValue;
+import android.view.Gravity;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Debug overlay showing the current metrics over every activity.
+ *
+ * The overlay is a small text view added on top of the activity's decor view and refreshed
+ * once a second while the activity is resumed. It is not clickable, so touches reach the
+ * screen below it. Only registered in debuggable builds.
+ */
+public class MetricsOverlay implements Application.ActivityLifecycleCallbacks {
+
+    private static final String OVERLAY_TAG = "metrics_overlay";
+
+    private static final long REFRESH_INTERVAL_MS = 1000;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private TextView overlay;
+
+    private final Runnable refreshRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (overlay != null) {
+                overlay.setText(Metrics.snapshot().toText());
+                handler.postDelayed(this, REFRESH_INTERVAL_MS);
+            }
+        }
+    };
+
+    /**
+     * Registers the overlay for every activity of the app.
+     *
+     * @param application The application.
+     */
+    public static void install(Application application) {
+        application.registerActivityLifecycleCallbacks(new MetricsOverlay());
+    }
+
+    /**
+     * Shows the overlay over the resumed activity and starts refreshing it.
+     *
+     * @param activity The resumed activity.
+     */
+    @Override
+    public void onActivityResumed(@NonNull Activity activity) {
+        if (activity.isFinishing()) {
+            return;
+        }
+        ViewGroup decorView = (ViewGroup) activity.getWindow().getDecorView();
+        overlay = decorView.findViewWithTag(OVERLAY_TAG);
+        if (overlay == null) {
+            overlay = createOverlay(activity);
+            FrameLayout.LayoutParams layoutParams = new FrameLayout.LayoutParams(
+                    ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT,
+                    Gravity.BOTTOM | Gravity.START);
+            decorView.addView(overlay, layoutParams);
+        }
+        handler.removeCallbacks(refreshRunnable);
+        refreshRunnable.run();
+    }
+
+    /**
+     * Stops refreshing the overlay of the paused activity.
+     *
+     * @param activity The paused activity.
+     */
+    @Override
+    public void onActivityPaused(@NonNull Activity activity) {
+        handler.removeCallbacks(refreshRunnable);
+        overlay = null;
+    }
+
+    /**
+     * Creates the overlay's text view.
+     *
+     * @param activity The activity the view belongs to.
+     * @return A small monospace text view on a translucent background.
+     */
+    private static TextView createOverlay(Activity activity) {
+        TextView textView = new TextView(activity);
+        textView.setTag(OVERLAY_TAG);
+        textView.setTextSize(TypedValue.COMPLEX_UNIT_SP, 9);
+        textView.setTypeface(Typeface.MONOSPACE);
+        textView.setTextColor(Color.WHITE);
+        textView.setBackgroundColor(0xAA000000);
+        int padding = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 4,
+                activity.getResources().getDisplayMetrics());
+        textView.setPadding(padding, padding, padding, padding);
+        textView.setClickable(false);
+        textView.setFocusable(false);
+        return textView;
+    }
+
+    /**
+     * Not used.
+     *
+     * @param activity           The created activity.
+     * @param savedInstanceState The saved state of the activity.
+     */
+    @Override
+    public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+    }
+
+    /**
+     * Not used.
+     *
+     * @param activity The started activity.
+     */
+    @Override
+    public void onActivityStarted(@NonNull Activity activity) {
+    }
+
+    /**
+     * Not used.
+     *
+     * @param activity The stopped activity.
+     */
+    @Override
+    public void onActivityStopped(@NonNull Activity activity) {
+    }
+
+    /**
+     * Not used.
+     *
+     * @param activity The activity whose state is being saved.
+     * @param outState The state being saved.
+     */
+    @Override
+    public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+    }
+
+    /**
+     * Not used.
+     *
+     * @param activity The destroyed activity.
+     */
+    @Override
+    public void onActivityDestroyed(@NonNull Activity activity) {
+    }
+}
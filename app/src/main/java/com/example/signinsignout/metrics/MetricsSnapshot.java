@@ -0,0 +1,79 @@
+package com.example.signinsignout.metrics;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable copy of every counter and histogram at one point in time.
+ */
+public class MetricsSnapshot {
+
+    public final long timestamp;
+    public final Map<String, Long> counters;
+    public final Map<String, Histogram.Snapshot> histograms;
+
+    /**
+     * Constructor for the MetricsSnapshot.
+     *
+     * @param timestamp  The wall clock time of the snapshot in milliseconds.
+     * @param counters   The counter values, sorted by name.
+     * @param histograms The histogram snapshots, sorted by name.
+     */
+    MetricsSnapshot(long timestamp, TreeMap<String, Long> counters,
+                    TreeMap<String, Histogram.Snapshot> histograms) {
+        this.timestamp = timestamp;
+        this.counters = counters;
+        this.histograms = histograms;
+    }
+
+    /**
+     * Converts the snapshot to JSON.
+     *
+     * @return An object with a timestamp, a counters object and a histograms object.
+     * @throws JSONException If a value cannot be written.
+     */
+    public JSONObject toJson() throws JSONException {
+        JSONObject counterValues = new JSONObject();
+        for (Map.Entry<String, Long> counter : counters.entrySet()) {
+            counterValues.put(counter.getKey(), counter.getValue());
+        }
+        JSONObject histogramValues = new JSONObject();
+        for (Map.Entry<String, Histogram.Snapshot> histogram : histograms.entrySet()) {
+            Histogram.Snapshot value = histogram.getValue();
+            histogramValues.put(histogram.getKey(), new JSONObject()
+                    .put("count", value.count)
+                    .put("sum", value.sum)
+                    .put("min", value.min)
+                    .put("max", value.max)
+                    .put("p50", value.p50)
+                    .put("p95", value.p95)
+                    .put("p99", value.p99));
+        }
+        return new JSONObject()
+                .put("timestamp", timestamp)
+                .put("counters", counterValues)
+                .put("histograms", histogramValues);
+    }
+
+    /**
+     * Formats the snapshot as short lines for the debug overlay.
+     *
+     * @return One line per counter, then one line per histogram with its count and percentiles.
+     */
+    public String toText() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Long> counter : counters.entrySet()) {
+            text.append(counter.getKey()).append(' ').append(counter.getValue()).append('\n');
+        }
+        for (Map.Entry<String, Histogram.Snapshot> histogram : histograms.entrySet()) {
+            Histogram.Snapshot value = histogram.getValue();
+            text.append(String.format(Locale.US, "%s n=%d p50=%d p95=%d p99=%d max=%d\n",
+                    histogram.getKey(), value.count, value.p50, value.p95, value.p99, value.max));
+        }
+        return text.toString().trim();
+    }
+}
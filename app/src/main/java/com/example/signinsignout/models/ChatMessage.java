@@ -1,12 +1,23 @@
 package com.example.signinsignout.models;
 
-import java.util.Date;
-
 /**
  * Model class representing a chat message.
  */
 public class ChatMessage {
-    public String senderId, receiverID, message, dateTime;
 
-    public Date dateObject;
+    /** The message is stored on the server. */
+    public static final int STATUS_SENT = 0;
+
+    /** The message is shown locally and waiting for the server to acknowledge it. */
+    public static final int STATUS_PENDING = 1;
+
+    /** The message could not be written after every retry. */
+    public static final int STATUS_FAILED = 2;
+
+    public String id, senderId, receiverID, message;
+
+    /** The message time in milliseconds since the epoch. Formatted only when the row is bound. */
+    public long timestamp;
+
+    public int status = STATUS_SENT;
 }
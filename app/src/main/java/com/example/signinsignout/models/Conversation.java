@@ -0,0 +1,16 @@
+package com.example.signinsignout.models;
+
+import java.util.Date;
+
+/**
+ * Model class representing the summary of a conversation shown in the recent chats list.
+ */
+public class Conversation {
+    public String id, lastMessage, lastSenderId;
+
+    public User otherUser;
+
+    public Date dateObject;
+
+    public long unreadCount;
+}
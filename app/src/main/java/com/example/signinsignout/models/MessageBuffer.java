@@ -0,0 +1,433 @@
+package com.example.signinsignout.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact, ordered storage for the messages of a conversation.
+ *
+ * Messages are kept in parallel primitive arrays instead of one object each. Participant IDs
+ * are interned once and referenced by a byte index, timestamps are stored as epoch millis,
+ * and every message body lives in one shared char array addressed by offset and length.
+ * Bodies are only appended to that array; removed or replaced bodies are reclaimed by
+ * copying the live ones into a new array once more than half of it is unused.
+ *
+ * Messages are ordered and identified by their timestamp and ID, like in the chat query.
+ */
+public class MessageBuffer {
+
+    private static final int INITIAL_CAPACITY = 32;
+    private static final int INITIAL_TEXT_CAPACITY = 2048;
+    private static final int MAX_PARTICIPANTS = 256;
+
+    private final List<String> participants = new ArrayList<>();
+
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private byte[] senders = new byte[INITIAL_CAPACITY];
+    private byte[] receivers = new byte[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private int[] textOffsets = new int[INITIAL_CAPACITY];
+    private int[] textLengths = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private char[] text = new char[INITIAL_TEXT_CAPACITY];
+    private int textSize;
+    private int liveTextSize;
+
+    /**
+     * Returns the number of stored messages.
+     *
+     * @return The number of messages.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether no message is stored.
+     *
+     * @return True if the buffer is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the ID of the message at a position.
+     *
+     * @param position The position of the message.
+     * @return The message ID.
+     */
+    public String getId(int position) {
+        return ids[position];
+    }
+
+    /**
+     * Returns the timestamp of the message at a position.
+     *
+     * @param position The position of the message.
+     * @return The message time in milliseconds since the epoch.
+     */
+    public long getTimestamp(int position) {
+        return timestamps[position];
+    }
+
+    /**
+     * Returns the sender ID of the message at a position.
+     *
+     * @param position The position of the message.
+     * @return The sender ID.
+     */
+    public String getSenderId(int position) {
+        return participants.get(senders[position] & 0xFF);
+    }
+
+    /**
+     * Returns the send status of the message at a position.
+     *
+     * @param position The position of the message.
+     * @return One of the ChatMessage status constants.
+     */
+    public int getStatus(int position) {
+        return statuses[position];
+    }
+
+    /**
+     * Returns the array holding the message bodies, to be read with getTextOffset and
+     * getTextLength. The array is never written over, so it may be handed to a TextView.
+     *
+     * @return The shared body array.
+     */
+    public char[] getText() {
+        return text;
+    }
+
+    /**
+     * Returns where the body of the message at a position starts in getText().
+     *
+     * @param position The position of the message.
+     * @return The body offset.
+     */
+    public int getTextOffset(int position) {
+        return textOffsets[position];
+    }
+
+    /**
+     * Returns the length of the body of the message at a position.
+     *
+     * @param position The position of the message.
+     * @return The body length.
+     */
+    public int getTextLength(int position) {
+        return textLengths[position];
+    }
+
+    /**
+     * Creates a ChatMessage from the message at a position.
+     *
+     * @param position The position of the message.
+     * @return A new ChatMessage holding the stored fields.
+     */
+    public ChatMessage get(int position) {
+        ChatMessage chatMessage = new ChatMessage();
+        chatMessage.id = ids[position];
+        chatMessage.senderId = participants.get(senders[position] & 0xFF);
+        chatMessage.receiverID = participants.get(receivers[position] & 0xFF);
+        chatMessage.message = new String(text, textOffsets[position], textLengths[position]);
+        chatMessage.timestamp = timestamps[position];
+        chatMessage.status = statuses[position];
+        return chatMessage;
+    }
+
+    /**
+     * Orders the message at a position against another message, by timestamp and then by ID.
+     *
+     * @param position    The position of the stored message.
+     * @param chatMessage The message to compare with.
+     * @return A negative number, zero or a positive number as the stored message is ordered
+     *         before, equal to or after the given one.
+     */
+    public int compare(int position, ChatMessage chatMessage) {
+        int result = Long.compare(timestamps[position], chatMessage.timestamp);
+        if (result != 0) {
+            return result;
+        }
+        return ids[position].compareTo(chatMessage.id);
+    }
+
+    /**
+     * Finds the position at which a message keeps the buffer ordered.
+     *
+     * @param chatMessage The message to place.
+     * @return The insertion position, after any message with the same key.
+     */
+    public int insertionPoint(ChatMessage chatMessage) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(middle, chatMessage) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first message that is newer than a time.
+     *
+     * @param timestamp The time in milliseconds since the epoch.
+     * @return The position of the first later message, or size() if there is none.
+     */
+    public int indexAfter(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamps[middle] <= timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds a message with the same timestamp and ID.
+     *
+     * @param chatMessage The message to look up.
+     * @return The position of the message, or -1 if it is not stored.
+     */
+    public int indexOf(ChatMessage chatMessage) {
+        int position = insertionPoint(chatMessage) - 1;
+        return position >= 0 && compare(position, chatMessage) == 0 ? position : -1;
+    }
+
+    /**
+     * Finds a message by ID alone, for messages whose timestamp may have changed.
+     *
+     * This scans the whole buffer, so indexOf should be tried first.
+     *
+     * @param id The message ID.
+     * @return The position of the message, or -1 if it is not stored.
+     */
+    public int indexOfId(String id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i].equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Inserts a message at a position. The caller keeps the buffer ordered.
+     *
+     * @param position    The position to insert at.
+     * @param chatMessage The message to insert.
+     */
+    public void insert(int position, ChatMessage chatMessage) {
+        openGap(position, 1);
+        write(position, chatMessage);
+    }
+
+    /**
+     * Inserts messages at a position, moving the following messages only once.
+     *
+     * @param position     The position to insert at.
+     * @param chatMessages The messages to insert, in order.
+     */
+    public void insertAll(int position, List<ChatMessage> chatMessages) {
+        openGap(position, chatMessages.size());
+        for (ChatMessage chatMessage : chatMessages) {
+            write(position++, chatMessage);
+        }
+    }
+
+    /**
+     * Replaces the message at a position. The caller keeps the buffer ordered.
+     *
+     * @param position    The position of the message.
+     * @param chatMessage The new message.
+     */
+    public void set(int position, ChatMessage chatMessage) {
+        String body = chatMessage.message != null ? chatMessage.message : "";
+        if (!sameText(position, body)) {
+            liveTextSize -= textLengths[position];
+            textOffsets[position] = appendText(body);
+            textLengths[position] = body.length();
+            liveTextSize += body.length();
+        }
+        ids[position] = chatMessage.id;
+        timestamps[position] = chatMessage.timestamp;
+        senders[position] = participantIndex(chatMessage.senderId);
+        receivers[position] = participantIndex(chatMessage.receiverID);
+        statuses[position] = (byte) chatMessage.status;
+        compactText();
+    }
+
+    /**
+     * Removes the message at a position.
+     *
+     * @param position The position of the message.
+     */
+    public void remove(int position) {
+        removeRange(position, position + 1);
+    }
+
+    /**
+     * Removes the messages in a range of positions.
+     *
+     * @param start The first position to remove.
+     * @param end   The position after the last one to remove.
+     */
+    public void removeRange(int start, int end) {
+        int count = end - start;
+        if (count <= 0) {
+            return;
+        }
+        for (int i = start; i < end; i++) {
+            liveTextSize -= textLengths[i];
+        }
+        int moved = size - end;
+        System.arraycopy(ids, end, ids, start, moved);
+        System.arraycopy(timestamps, end, timestamps, start, moved);
+        System.arraycopy(senders, end, senders, start, moved);
+        System.arraycopy(receivers, end, receivers, start, moved);
+        System.arraycopy(statuses, end, statuses, start, moved);
+        System.arraycopy(textOffsets, end, textOffsets, start, moved);
+        System.arraycopy(textLengths, end, textLengths, start, moved);
+        Arrays.fill(ids, size - count, size, null);
+        size -= count;
+        compactText();
+    }
+
+    /**
+     * Writes a message into a slot opened by openGap.
+     *
+     * @param position    The slot position.
+     * @param chatMessage The message to write.
+     */
+    private void write(int position, ChatMessage chatMessage) {
+        String body = chatMessage.message != null ? chatMessage.message : "";
+        ids[position] = chatMessage.id;
+        timestamps[position] = chatMessage.timestamp;
+        senders[position] = participantIndex(chatMessage.senderId);
+        receivers[position] = participantIndex(chatMessage.receiverID);
+        statuses[position] = (byte) chatMessage.status;
+        textOffsets[position] = appendText(body);
+        textLengths[position] = body.length();
+        liveTextSize += body.length();
+    }
+
+    /**
+     * Makes room for messages at a position, growing the arrays if needed.
+     *
+     * @param position The position of the first new slot.
+     * @param count    The number of slots to open.
+     */
+    private void openGap(int position, int count) {
+        int required = size + count;
+        if (required > ids.length) {
+            int capacity = Math.max(required, ids.length + (ids.length >> 1));
+            ids = Arrays.copyOf(ids, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            senders = Arrays.copyOf(senders, capacity);
+            receivers = Arrays.copyOf(receivers, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            textOffsets = Arrays.copyOf(textOffsets, capacity);
+            textLengths = Arrays.copyOf(textLengths, capacity);
+        }
+        int moved = size - position;
+        System.arraycopy(ids, position, ids, position + count, moved);
+        System.arraycopy(timestamps, position, timestamps, position + count, moved);
+        System.arraycopy(senders, position, senders, position + count, moved);
+        System.arraycopy(receivers, position, receivers, position + count, moved);
+        System.arraycopy(statuses, position, statuses, position + count, moved);
+        System.arraycopy(textOffsets, position, textOffsets, position + count, moved);
+        System.arraycopy(textLengths, position, textLengths, position + count, moved);
+        size = required;
+    }
+
+    /**
+     * Returns the index of a participant ID, interning it on first use.
+     *
+     * @param participantId The participant ID.
+     * @return The participant index, stored as an unsigned byte.
+     */
+    private byte participantIndex(String participantId) {
+        int index = participants.indexOf(participantId);
+        if (index < 0) {
+            if (participants.size() == MAX_PARTICIPANTS) {
+                throw new IllegalStateException("Too many participants in one conversation");
+            }
+            index = participants.size();
+            participants.add(participantId);
+        }
+        return (byte) index;
+    }
+
+    /**
+     * Appends a body to the text array, growing it into a new array if needed.
+     *
+     * @param body The body to append.
+     * @return The offset of the body.
+     */
+    private int appendText(String body) {
+        int required = textSize + body.length();
+        if (required > text.length) {
+            text = Arrays.copyOf(text, Math.max(required, text.length * 2));
+        }
+        int offset = textSize;
+        body.getChars(0, body.length(), text, offset);
+        textSize = required;
+        return offset;
+    }
+
+    /**
+     * Returns whether the stored body at a position equals a string.
+     *
+     * @param position The position of the message.
+     * @param body     The body to compare with.
+     * @return True if the bodies are equal.
+     */
+    private boolean sameText(int position, String body) {
+        int length = textLengths[position];
+        if (length != body.length()) {
+            return false;
+        }
+        int offset = textOffsets[position];
+        for (int i = 0; i < length; i++) {
+            if (text[offset + i] != body.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the live bodies into a new array once more than half of the text array is unused.
+     *
+     * A new array is allocated rather than compacting in place, since views may still be
+     * showing text from the current one.
+     */
+    private void compactText() {
+        if (textSize <= INITIAL_TEXT_CAPACITY || liveTextSize * 2 >= textSize) {
+            return;
+        }
+        char[] compacted = new char[Math.max(INITIAL_TEXT_CAPACITY, liveTextSize * 2)];
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(text, textOffsets[i], compacted, offset, textLengths[i]);
+            textOffsets[i] = offset;
+            offset += textLengths[i];
+        }
+        text = compacted;
+        textSize = offset;
+    }
+}
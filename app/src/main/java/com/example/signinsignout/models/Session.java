@@ -0,0 +1,42 @@
+package com.example.signinsignout.models;
+
+/**
+ * Model class representing the signed-in user's session.
+ *
+ * A session never changes once created; signing in again replaces it as a whole.
+ */
+public class Session {
+    public final String userId, firstName, lastName, image, imageRef;
+
+    /**
+     * Constructor for the Session.
+     *
+     * @param userId    The signed-in user's document ID.
+     * @param firstName The user's first name.
+     * @param lastName  The user's last name.
+     * @param image     The user's legacy Base64 profile image, or null.
+     * @param imageRef  The image store reference of the user's profile image, or null.
+     */
+    public Session(String userId, String firstName, String lastName, String image, String imageRef) {
+        this.userId = userId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.image = image;
+        this.imageRef = imageRef;
+    }
+
+    /**
+     * Creates a User holding the signed-in user's details.
+     *
+     * @return The signed-in user.
+     */
+    public User toUser() {
+        User user = new User();
+        user.id = userId;
+        user.fname = firstName;
+        user.lname = lastName;
+        user.image = image;
+        user.imageRef = imageRef;
+        return user;
+    }
+}
@@ -1,12 +1,11 @@
 package com.example.signinsignout.models;
 
-import java.io.Serializable;
-
 /**
  * Model class representing a user.
  *
- * Implements Serializable for object serialization.
+ * Users are not passed between screens; screens pass the user ID and resolve it through
+ * the UserCache.
  */
- public class User implements Serializable {
-    public String fname, lname,name, image, email, token, id;
+ public class User {
+    public String fname, lname,name, image, imageRef, email, token, id;
 }
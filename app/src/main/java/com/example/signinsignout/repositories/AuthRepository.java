@@ -0,0 +1,303 @@
+package com.example.signinsignout.repositories;
+
+import android.util.Base64;
+
+import com.example.signinsignout.firebase.ImageStore;
+import com.example.signinsignout.listeners.AuthListener;
+import com.example.signinsignout.models.Session;
+import com.example.signinsignout.utilities.AppExecutors;
+import com.example.signinsignout.utilities.Constants;
+import com.example.signinsignout.utilities.ImageEncoder;
+import com.example.signinsignout.utilities.PasswordHasher;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Repository for signing users in and up.
+ *
+ * Sign-in reads a single small credentials document whose ID is the lowercase email, so it
+ * needs no query, no index on the password and no profile fields beyond the session ones.
+ * The document holds a salted PBKDF2 hash of the password, which is computed on
+ * AppExecutors.passwordHasher(). Accounts created before credentials documents existed are
+ * found once by email, checked against their plaintext password and migrated on the spot.
+ * Listeners are called on the main thread.
+ */
+public class AuthRepository {
+
+    private final FirebaseFirestore database;
+
+    /**
+     * Constructor for the AuthRepository.
+     *
+     * @param database The Firestore instance to read from and write to.
+     */
+    public AuthRepository(FirebaseFirestore database) {
+        this.database = database;
+    }
+
+    /**
+     * Signs a user in.
+     *
+     * @param email        The email as entered.
+     * @param password     The password as entered.
+     * @param authListener The listener that receives the new session, or an error if the
+     *                     credentials do not match.
+     */
+    public void signIn(String email, String password, AuthListener authListener) {
+        getCredentials(email).get()
+                .addOnSuccessListener(AppExecutors.passwordHasher(), documentSnapshot -> {
+                    if (!documentSnapshot.exists()) {
+                        signInLegacy(email, password, authListener);
+                        return;
+                    }
+                    try {
+                        Long iterations = documentSnapshot.getLong(Constants.KEY_PASSWORD_ITERATIONS);
+                        String salt = documentSnapshot.getString(Constants.KEY_PASSWORD_SALT);
+                        String hash = documentSnapshot.getString(Constants.KEY_PASSWORD_HASH);
+                        if (iterations == null || salt == null || hash == null
+                                || !PasswordHasher.matches(password, salt, iterations.intValue(), hash)) {
+                            deliverError(authListener, invalidCredentials());
+                            return;
+                        }
+                        deliverSession(authListener, new Session(
+                                documentSnapshot.getString(Constants.KEY_USER_ID),
+                                documentSnapshot.getString(Constants.KEY_FIRST_NAME),
+                                documentSnapshot.getString(Constants.KEY_LAST_NAME),
+                                null,
+                                documentSnapshot.getString(Constants.KEY_IMAGE_REF)));
+                    } catch (Exception exception) {
+                        deliverError(authListener, exception);
+                    }
+                })
+                .addOnFailureListener(AppExecutors.mainThread(), authListener::onAuthError);
+    }
+
+    /**
+     * Creates a user and their credentials in one transaction, failing if the email is taken.
+     *
+     * Accounts created before credentials documents existed have none yet, so the user
+     * collection is checked for the email first.
+     *
+     * @param firstName    The user's first name.
+     * @param lastName     The user's last name.
+     * @param email        The email as entered.
+     * @param password     The password as entered.
+     * @param imageRef     The image store reference of the user's profile image.
+     * @param authListener The listener that receives the new session.
+     */
+    public void signUp(String firstName, String lastName, String email, String password,
+                       String imageRef, AuthListener authListener) {
+        AppExecutors.passwordHasher().execute(() -> {
+            Map<String, Object> credentials;
+            try {
+                if (hasLegacyAccount(email)) {
+                    deliverError(authListener, emailTaken());
+                    return;
+                }
+                credentials = getCredentialFields(password);
+            } catch (Exception exception) {
+                deliverError(authListener, exception);
+                return;
+            }
+            DocumentReference userReference = database.collection(Constants.KEY_COLLECTION_USERS).document();
+            DocumentReference credentialsReference = getCredentials(email);
+
+            HashMap<String, Object> user = new HashMap<>();
+            user.put(Constants.KEY_FIRST_NAME, firstName);
+            user.put(Constants.KEY_LAST_NAME, lastName);
+            user.put(Constants.KEY_EMAIL, email);
+            user.put(Constants.KEY_SEARCH_NAME, UserRepository.getSearchName(firstName, lastName));
+            user.put(Constants.KEY_SEARCH_EMAIL, UserRepository.getSearchEmail(email));
+            user.put(Constants.KEY_IMAGE_REF, imageRef);
+
+            credentials.put(Constants.KEY_USER_ID, userReference.getId());
+            credentials.put(Constants.KEY_FIRST_NAME, firstName);
+            credentials.put(Constants.KEY_LAST_NAME, lastName);
+            credentials.put(Constants.KEY_IMAGE_REF, imageRef);
+
+            database.runTransaction(transaction -> {
+                        if (transaction.get(credentialsReference).exists()) {
+                            throw emailTaken();
+                        }
+                        transaction.set(userReference, user);
+                        transaction.set(credentialsReference, credentials);
+                        return null;
+                    })
+                    .addOnSuccessListener(AppExecutors.mainThread(), unused -> authListener.onAuthenticated(
+                            new Session(userReference.getId(), firstName, lastName, null, imageRef)))
+                    .addOnFailureListener(AppExecutors.mainThread(), authListener::onAuthError);
+        });
+    }
+
+    /**
+     * Signs in an account that has no credentials document yet, then migrates it.
+     *
+     * The account is looked up by email, which only needs the automatic single-field index.
+     * The session is delivered before the migration starts, so the user does not wait for a
+     * second password hash or the image upload. Runs on the password hashing executor.
+     *
+     * @param email        The email as entered.
+     * @param password     The password as entered.
+     * @param authListener The listener that receives the new session.
+     */
+    private void signInLegacy(String email, String password, AuthListener authListener) {
+        QuerySnapshot querySnapshot;
+        try {
+            querySnapshot = Tasks.await(database.collection(Constants.KEY_COLLECTION_USERS)
+                    .whereEqualTo(Constants.KEY_EMAIL, email)
+                    .get());
+        } catch (Exception exception) {
+            deliverError(authListener, exception);
+            return;
+        }
+        for (DocumentSnapshot documentSnapshot : querySnapshot.getDocuments()) {
+            if (!password.equals(documentSnapshot.getString(Constants.KEY_PASSWORD))) {
+                continue;
+            }
+            Session session = new Session(
+                    documentSnapshot.getId(),
+                    documentSnapshot.getString(Constants.KEY_FIRST_NAME),
+                    documentSnapshot.getString(Constants.KEY_LAST_NAME),
+                    documentSnapshot.getString(Constants.KEY_IMAGE),
+                    documentSnapshot.getString(Constants.KEY_IMAGE_REF));
+            deliverSession(authListener, session);
+            migrate(email, password, session);
+            return;
+        }
+        deliverError(authListener, invalidCredentials());
+    }
+
+    /**
+     * Checks whether a user document already uses an email, as accounts created before
+     * credentials documents existed do. Runs on the password hashing executor.
+     *
+     * @param email The email as entered.
+     * @return True if a user has the email, as entered or in its lowercase search field.
+     * @throws Exception If the user collection cannot be read.
+     */
+    private boolean hasLegacyAccount(String email) throws Exception {
+        CollectionReference users = database.collection(Constants.KEY_COLLECTION_USERS);
+        return !Tasks.await(users.whereEqualTo(Constants.KEY_EMAIL, email).limit(1).get()).isEmpty()
+                || !Tasks.await(users.whereEqualTo(Constants.KEY_SEARCH_EMAIL,
+                        UserRepository.getSearchEmail(email)).limit(1).get()).isEmpty();
+    }
+
+    /**
+     * Writes the credentials document of a legacy account, removes its plaintext password and
+     * adds the search fields the account was created without, so it shows up in the user
+     * directory. A Base64 profile image is first encoded into the image store variants and
+     * uploaded, so the credentials carry an image reference like those of new accounts. A
+     * failed migration is retried on the next sign-in. Blocks, so it runs on the password
+     * hashing executor.
+     *
+     * @param email    The email as entered.
+     * @param password The verified password.
+     * @param session  The session of the account.
+     */
+    private void migrate(String email, String password, Session session) {
+        Map<String, Object> credentials;
+        String imageRef = session.imageRef;
+        try {
+            credentials = getCredentialFields(password);
+            if (imageRef == null && session.image != null) {
+                byte[][] variants = ImageEncoder.encode(Base64.decode(session.image, Base64.DEFAULT),
+                        new int[]{ImageStore.THUMBNAIL_WIDTH, ImageStore.FULL_WIDTH});
+                imageRef = Tasks.await(new ImageStore().upload(variants[0], variants[1]));
+            }
+        } catch (Exception exception) {
+            return;
+        }
+        credentials.put(Constants.KEY_USER_ID, session.userId);
+        credentials.put(Constants.KEY_FIRST_NAME, session.firstName);
+        credentials.put(Constants.KEY_LAST_NAME, session.lastName);
+        credentials.put(Constants.KEY_IMAGE_REF, imageRef);
+
+        WriteBatch batch = database.batch();
+        batch.set(getCredentials(email), credentials);
+        batch.update(database.collection(Constants.KEY_COLLECTION_USERS).document(session.userId),
+                Constants.KEY_PASSWORD, FieldValue.delete(),
+                Constants.KEY_IMAGE_REF, imageRef,
+                Constants.KEY_SEARCH_NAME, UserRepository.getSearchName(
+                        session.firstName != null ? session.firstName : "",
+                        session.lastName != null ? session.lastName : ""),
+                Constants.KEY_SEARCH_EMAIL, UserRepository.getSearchEmail(email));
+        batch.commit();
+    }
+
+    /**
+     * Hashes a password with a new salt.
+     *
+     * @param password The password.
+     * @return The hash, salt and iteration count fields of a credentials document.
+     * @throws Exception If PBKDF2 is not available.
+     */
+    private static Map<String, Object> getCredentialFields(String password) throws Exception {
+        String salt = PasswordHasher.newSalt();
+        HashMap<String, Object> fields = new HashMap<>();
+        fields.put(Constants.KEY_PASSWORD_SALT, salt);
+        fields.put(Constants.KEY_PASSWORD_ITERATIONS, PasswordHasher.ITERATIONS);
+        fields.put(Constants.KEY_PASSWORD_HASH, PasswordHasher.hash(password, salt, PasswordHasher.ITERATIONS));
+        return fields;
+    }
+
+    /**
+     * Returns the credentials document of an email.
+     *
+     * @param email The email as entered.
+     * @return The document keyed by the lowercase email.
+     */
+    private DocumentReference getCredentials(String email) {
+        return database.collection(Constants.KEY_COLLECTION_CREDENTIALS)
+                .document(UserRepository.getSearchEmail(email));
+    }
+
+    /**
+     * Creates the error reported for an unknown email or a wrong password alike.
+     *
+     * @return The error.
+     */
+    private static Exception invalidCredentials() {
+        return new FirebaseFirestoreException("Invalid email or password",
+                FirebaseFirestoreException.Code.PERMISSION_DENIED);
+    }
+
+    /**
+     * Creates the error reported when an email is already registered.
+     *
+     * @return The error.
+     */
+    private static FirebaseFirestoreException emailTaken() {
+        return new FirebaseFirestoreException("This email is already registered",
+                FirebaseFirestoreException.Code.ALREADY_EXISTS);
+    }
+
+    /**
+     * Passes a session to the listener on the main thread.
+     *
+     * @param authListener The listener.
+     * @param session      The new session.
+     */
+    private static void deliverSession(AuthListener authListener, Session session) {
+        AppExecutors.mainThread().execute(() -> authListener.onAuthenticated(session));
+    }
+
+    /**
+     * Passes an error to the listener on the main thread.
+     *
+     * @param authListener The listener.
+     * @param exception    The error.
+     */
+    private static void deliverError(AuthListener authListener, Exception exception) {
+        AppExecutors.mainThread().execute(() -> authListener.onAuthError(exception));
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.signinsignout.repositories;
+
+import com.example.signinsignout.listeners.ConversationListener;
+import com.example.signinsignout.listeners.ReceiptListener;
+import com.example.signinsignout.metrics.Metrics;
+import com.example.signinsignout.models.Conversation;
+import com.example.signinsignout.models.User;
+import com.example.signinsignout.utilities.AppExecutors;
+import com.example.signinsignout.utilities.Constants;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Repository for the per-conversation summary documents behind the recent chats list.
+ *
+ * Each summary holds the last message, its timestamp, unread counts per participant and a
+ * snapshot of both participants, so the list needs a single indexed query. It also holds the
+ * delivered and read cursors of each participant: one time per participant up to which every
+ * message counts as delivered or read, instead of a flag on every message.
+ */
+public class ConversationRepository {
+
+    private final FirebaseFirestore database;
+    private final String currentUserId;
+
+    /**
+     * Constructor for the ConversationRepository.
+     *
+     * @param database      The Firestore instance to read from and write to.
+     * @param currentUserId The ID of the signed-in user.
+     */
+    public ConversationRepository(FirebaseFirestore database, String currentUserId) {
+        this.database = database;
+        this.currentUserId = currentUserId;
+    }
+
+    /**
+     * Builds the participant fields written with every summary update.
+     *
+     * @param sender   The signed-in user.
+     * @param receiver The other participant.
+     * @return The participant list and the name and image snapshots keyed by user ID.
+     */
+    public static Map<String, Object> getParticipantFields(User sender, User receiver) {
+        HashMap<String, Object> names = new HashMap<>();
+        names.put(sender.id, sender.fname);
+        names.put(receiver.id, receiver.fname);
+        HashMap<String, Object> imageRefs = new HashMap<>();
+        imageRefs.put(sender.id, sender.imageRef);
+        imageRefs.put(receiver.id, receiver.imageRef);
+
+        HashMap<String, Object> fields = new HashMap<>();
+        fields.put(Constants.KEY_PARTICIPANTS, Arrays.asList(sender.id, receiver.id));
+        fields.put(Constants.KEY_PARTICIPANT_NAMES, names);
+        fields.put(Constants.KEY_PARTICIPANT_IMAGE_REFS, imageRefs);
+        return fields;
+    }
+
+    /**
+     * Listens to the most recent conversations of the signed-in user.
+     *
+     * Snapshots are parsed in the background and the listener is called on the main thread.
+     *
+     * @param limit                The maximum number of conversations.
+     * @param conversationListener The listener that receives the conversations, newest first.
+     * @return The registration used to stop listening. Results still queued for the main thread
+     *         are dropped once it is removed.
+     */
+    public ListenerRegistration listenRecentConversations(int limit, ConversationListener conversationListener) {
+        AtomicBoolean active = new AtomicBoolean(true);
+        ListenerRegistration registration = database.collection(Constants.KEY_COLLECTION_CONVERSATIONS)
+                .whereArrayContains(Constants.KEY_PARTICIPANTS, currentUserId)
+                .orderBy(Constants.KEY_TIMESTAMP, Query.Direction.DESCENDING)
+                .limit(limit)
+                .addSnapshotListener(AppExecutors.snapshotParser(), (value, error) -> {
+                    if (error != null) {
+                        AppExecutors.mainThread().execute(() -> {
+                            if (active.get()) {
+                                conversationListener.onConversationError(error);
+                            }
+                        });
+                        return;
+                    }
+                    if (value == null) {
+                        return;
+                    }
+                    Metrics.recordDocumentsRead("conversations.recent", value.getDocumentChanges().size(),
+                            value.getMetadata().isFromCache());
+                    List<Conversation> conversations = new ArrayList<>();
+                    for (DocumentSnapshot documentSnapshot : value.getDocuments()) {
+                        Conversation conversation = toConversation(documentSnapshot);
+                        if (conversation != null) {
+                            conversations.add(conversation);
+                        }
+                    }
+                    AppExecutors.mainThread().execute(() -> {
+                        if (active.get()) {
+                            conversationListener.onConversationsChanged(conversations);
+                        }
+                    });
+                });
+        return () -> {
+            active.set(false);
+            registration.remove();
+        };
+    }
+
+    /**
+     * Listens to the delivered and read cursors of the other participant of a conversation.
+     *
+     * A read message also counts as delivered, so the delivered cursor passed on is never
+     * behind the read one.
+     *
+     * @param conversationId  The conversation to listen to.
+     * @param otherUserId     The participant whose cursors are reported.
+     * @param receiptListener The listener that receives the cursors in milliseconds since the
+     *                        epoch, 0 if the participant has none yet.
+     * @return The registration used to stop listening. Results still queued for the main thread
+     *         are dropped once it is removed.
+     */
+    public ListenerRegistration listenReceipts(String conversationId, String otherUserId,
+                                               ReceiptListener receiptListener) {
+        AtomicBoolean active = new AtomicBoolean(true);
+        ListenerRegistration registration = database.collection(Constants.KEY_COLLECTION_CONVERSATIONS)
+                .document(conversationId)
+                .addSnapshotListener(AppExecutors.snapshotParser(), (value, error) -> {
+                    if (error != null) {
+                        AppExecutors.mainThread().execute(() -> {
+                            if (active.get()) {
+                                receiptListener.onReceiptError(error);
+                            }
+                        });
+                        return;
+                    }
+                    if (value == null) {
+                        return;
+                    }
+                    Metrics.recordDocumentsRead("conversations.receipts", 1, value.getMetadata().isFromCache());
+                    long readUpTo = getCursor(value, Constants.KEY_READ_UP_TO, otherUserId);
+                    long deliveredUpTo = Math.max(readUpTo,
+                            getCursor(value, Constants.KEY_DELIVERED_UP_TO, otherUserId));
+                    AppExecutors.mainThread().execute(() -> {
+                        if (active.get()) {
+                            receiptListener.onReceiptsChanged(deliveredUpTo, readUpTo);
+                        }
+                    });
+                });
+        return () -> {
+            active.set(false);
+            registration.remove();
+        };
+    }
+
+    /**
+     * Marks a conversation read by the signed-in user up to a message, resetting their unread
+     * count in the same write.
+     *
+     * @param conversationId The conversation that was read.
+     * @param readUpTo       The time of the newest read message, in milliseconds since the epoch.
+     */
+    public void markConversationRead(String conversationId, long readUpTo) {
+        database.collection(Constants.KEY_COLLECTION_CONVERSATIONS)
+                .document(conversationId)
+                .update(FieldPath.of(Constants.KEY_UNREAD_COUNTS, currentUserId), 0,
+                        FieldPath.of(Constants.KEY_READ_UP_TO, currentUserId), new Date(readUpTo));
+    }
+
+    /**
+     * Marks a conversation delivered to the signed-in user up to a message.
+     *
+     * The cursor only ever moves forward: it is read and compared in a transaction, so a push
+     * that arrives late never moves it back over newer messages.
+     *
+     * @param conversationId The conversation a message was received in.
+     * @param deliveredUpTo  The time of the received message, in milliseconds since the epoch.
+     */
+    public void markConversationDelivered(String conversationId, long deliveredUpTo) {
+        DocumentReference conversation = database.collection(Constants.KEY_COLLECTION_CONVERSATIONS)
+                .document(conversationId);
+        database.runTransaction(transaction -> {
+            DocumentSnapshot current = transaction.get(conversation);
+            if (getCursor(current, Constants.KEY_DELIVERED_UP_TO, currentUserId) < deliveredUpTo) {
+                transaction.update(conversation, FieldPath.of(Constants.KEY_DELIVERED_UP_TO, currentUserId),
+                        new Date(deliveredUpTo));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Reads one participant's cursor from a summary document.
+     *
+     * @param documentSnapshot The summary document.
+     * @param field            The cursor map field.
+     * @param userId           The participant.
+     * @return The cursor in milliseconds since the epoch, or 0 if it is not set.
+     */
+    private static long getCursor(DocumentSnapshot documentSnapshot, String field, String userId) {
+        Object value = documentSnapshot.get(FieldPath.of(field, userId));
+        return value instanceof Timestamp ? ((Timestamp) value).toDate().getTime() : 0;
+    }
+
+    /**
+     * Maps a summary document to a Conversation seen from the signed-in user.
+     *
+     * @param documentSnapshot The summary document.
+     * @return The mapped Conversation, or null if the document has no other participant.
+     */
+    @SuppressWarnings("unchecked")
+    private Conversation toConversation(DocumentSnapshot documentSnapshot) {
+        List<String> participants = (List<String>) documentSnapshot.get(Constants.KEY_PARTICIPANTS);
+        if (participants == null) {
+            return null;
+        }
+        String otherUserId = null;
+        for (String participant : participants) {
+            if (!participant.equals(currentUserId)) {
+                otherUserId = participant;
+            }
+        }
+        if (otherUserId == null) {
+            return null;
+        }
+        Map<String, Object> names = (Map<String, Object>) documentSnapshot.get(Constants.KEY_PARTICIPANT_NAMES);
+        Map<String, Object> imageRefs = (Map<String, Object>) documentSnapshot.get(Constants.KEY_PARTICIPANT_IMAGE_REFS);
+        Map<String, Object> unreadCounts = (Map<String, Object>) documentSnapshot.get(Constants.KEY_UNREAD_COUNTS);
+
+        User otherUser = new User();
+        otherUser.id = otherUserId;
+        otherUser.fname = names != null ? (String) names.get(otherUserId) : null;
+        otherUser.imageRef = imageRefs != null ? (String) imageRefs.get(otherUserId) : null;
+
+        Conversation conversation = new Conversation();
+        conversation.id = documentSnapshot.getId();
+        conversation.otherUser = otherUser;
+        conversation.lastMessage = documentSnapshot.getString(Constants.KEY_LAST_MESSAGE);
+        conversation.lastSenderId = documentSnapshot.getString(Constants.KEY_LAST_SENDER_ID);
+        conversation.dateObject = documentSnapshot.getDate(Constants.KEY_TIMESTAMP);
+        Object unread = unreadCounts != null ? unreadCounts.get(currentUserId) : null;
+        conversation.unreadCount = unread instanceof Number ? ((Number) unread).longValue() : 0;
+        return conversation;
+    }
+}
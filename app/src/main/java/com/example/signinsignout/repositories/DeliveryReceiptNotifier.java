@@ -0,0 +1,89 @@
+package com.example.signinsignout.repositories;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Turns the pushes a user receives into a small number of delivered cursor writes.
+ *
+ * Received messages only move a pending cursor per conversation forward. Every pending cursor
+ * is written once FLUSH_DELAY_MS after the first unwritten message arrived, so a burst of
+ * pushes costs one write per conversation instead of one per message. Can be called from any
+ * thread; the cursors are kept on the main thread.
+ */
+public class DeliveryReceiptNotifier {
+
+    private static final long FLUSH_DELAY_MS = 1000;
+
+    private static DeliveryReceiptNotifier instance;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flush;
+    private final HashMap<String, Long> pendingDeliveredUpTo = new HashMap<>();
+    private final HashMap<String, Long> writtenDeliveredUpTo = new HashMap<>();
+
+    private String userId;
+
+    /**
+     * Returns the shared delivery receipt notifier.
+     *
+     * @return The notifier.
+     */
+    public static synchronized DeliveryReceiptNotifier getInstance() {
+        if (instance == null) {
+            instance = new DeliveryReceiptNotifier();
+        }
+        return instance;
+    }
+
+    private DeliveryReceiptNotifier() {
+    }
+
+    /**
+     * Reports that a message of a conversation reached the signed-in user.
+     *
+     * @param userId         The ID of the signed-in user.
+     * @param conversationId The conversation the message was received in.
+     * @param timestamp      The time of the received message, in milliseconds since the epoch.
+     */
+    public void onMessageDelivered(String userId, String conversationId, long timestamp) {
+        handler.post(() -> {
+            if (!userId.equals(this.userId)) {
+                flush();
+                writtenDeliveredUpTo.clear();
+                this.userId = userId;
+            }
+            Long written = writtenDeliveredUpTo.get(conversationId);
+            Long pending = pendingDeliveredUpTo.get(conversationId);
+            if ((written != null && timestamp <= written) || (pending != null && timestamp <= pending)) {
+                return;
+            }
+            if (pendingDeliveredUpTo.isEmpty()) {
+                handler.postDelayed(flushRunnable, FLUSH_DELAY_MS);
+            }
+            pendingDeliveredUpTo.put(conversationId, timestamp);
+        });
+    }
+
+    /**
+     * Writes every pending cursor right away.
+     */
+    private void flush() {
+        handler.removeCallbacks(flushRunnable);
+        if (pendingDeliveredUpTo.isEmpty()) {
+            return;
+        }
+        ConversationRepository conversationRepository =
+                new ConversationRepository(FirebaseFirestore.getInstance(), userId);
+        for (Map.Entry<String, Long> pending : pendingDeliveredUpTo.entrySet()) {
+            conversationRepository.markConversationDelivered(pending.getKey(), pending.getValue());
+        }
+        writtenDeliveredUpTo.putAll(pendingDeliveredUpTo);
+        pendingDeliveredUpTo.clear();
+    }
+}
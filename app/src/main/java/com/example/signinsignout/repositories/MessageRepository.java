@@ -0,0 +1,524 @@
+package com.example.signinsignout.repositories;
+
+import com.example.signinsignout.database.ConversationStore;
+import com.example.signinsignout.database.MessageStore;
+import com.example.signinsignout.listeners.BackfillListener;
+import com.example.signinsignout.listeners.MessageListener;
+import com.example.signinsignout.listeners.MessagePageListener;
+import com.example.signinsignout.listeners.SendStatusListener;
+import com.example.signinsignout.metrics.Metrics;
+import com.example.signinsignout.models.ChatMessage;
+import com.example.signinsignout.models.User;
+import com.example.signinsignout.utilities.AppExecutors;
+import com.example.signinsignout.utilities.Constants;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Repository that reads and writes the messages of a single conversation.
+ *
+ * Every message carries a canonical conversation ID built from both participants, so one
+ * ordered query covers both directions of the chat. Messages are cached in a local message
+ * store and read from it first, so chats open offline.
+ *
+ * Firestore results are parsed on the snapshot parser executor and every listener is called
+ * on the main thread with the finished messages.
+ */
+public class MessageRepository {
+
+    private static final int MAX_BATCH_WRITES = 450;
+
+    private final FirebaseFirestore database;
+    private final MessageStore messageStore;
+    private final ConversationStore conversationStore;
+    private final OutboundMessageQueue outboundMessageQueue;
+
+    private volatile Date syncedTimestamp;
+    private volatile boolean emptyOnServer;
+    private final String conversationId;
+    private final String senderId;
+    private final String receiverId;
+
+    /**
+     * Constructor for the MessageRepository.
+     *
+     * @param database          The Firestore instance to read from and write to.
+     * @param messageStore      The local store messages are cached in.
+     * @param conversationStore The local store holding the synced timestamp of the conversation.
+     * @param sender            The signed-in user.
+     * @param receiver          The other participant.
+     */
+    public MessageRepository(FirebaseFirestore database, MessageStore messageStore,
+                             ConversationStore conversationStore, User sender, User receiver) {
+        this.database = database;
+        this.messageStore = messageStore;
+        this.conversationStore = conversationStore;
+        this.senderId = sender.id;
+        this.receiverId = receiver.id;
+        this.conversationId = getConversationId(senderId, receiverId);
+        this.outboundMessageQueue = new OutboundMessageQueue(database, conversationId,
+                ConversationRepository.getParticipantFields(sender, receiver));
+    }
+
+    /**
+     * Builds the canonical conversation ID for two users.
+     *
+     * The IDs are ordered so both participants derive the same key.
+     *
+     * @param firstUserId  The ID of one participant.
+     * @param secondUserId The ID of the other participant.
+     * @return The conversation ID shared by both users.
+     */
+    public static String getConversationId(String firstUserId, String secondUserId) {
+        if (firstUserId.compareTo(secondUserId) <= 0) {
+            return firstUserId + "_" + secondUserId;
+        } else {
+            return secondUserId + "_" + firstUserId;
+        }
+    }
+
+    /**
+     * Stamps the conversation ID onto messages written before messages carried one.
+     *
+     * Those messages are invisible to the conversation query, so this must finish before the
+     * conversation is loaded. Both directions are read with the old sender and receiver query
+     * and only messages missing the ID are written. The conversation summary is then marked, so
+     * the next chat opening on any device costs a single document read.
+     *
+     * @param backfillListener The listener called on the main thread once every message of the
+     *                         conversation has its ID.
+     */
+    public void backfillConversationId(BackfillListener backfillListener) {
+        DocumentReference conversation = database.collection(Constants.KEY_COLLECTION_CONVERSATIONS)
+                .document(conversationId);
+        conversation.get()
+                .addOnSuccessListener(AppExecutors.snapshotParser(), conversationSnapshot -> {
+                    if (Boolean.TRUE.equals(
+                            conversationSnapshot.getBoolean(Constants.KEY_CONVERSATION_ID_BACKFILLED))) {
+                        AppExecutors.mainThread().execute(backfillListener::onBackfillComplete);
+                        return;
+                    }
+                    Tasks.whenAllSuccess(getLegacyQuery(senderId, receiverId).get(),
+                                    getLegacyQuery(receiverId, senderId).get())
+                            .addOnSuccessListener(AppExecutors.snapshotParser(), results -> {
+                                List<Task<Void>> commits = new ArrayList<>();
+                                WriteBatch batch = database.batch();
+                                int writes = 0;
+                                for (Object result : results) {
+                                    QuerySnapshot value = (QuerySnapshot) result;
+                                    Metrics.recordDocumentsRead("chat.backfill", value.size(),
+                                            value.getMetadata().isFromCache());
+                                    for (DocumentSnapshot documentSnapshot : value.getDocuments()) {
+                                        if (documentSnapshot.contains(Constants.KEY_CONVERSATION_ID)) {
+                                            continue;
+                                        }
+                                        batch.update(documentSnapshot.getReference(),
+                                                Constants.KEY_CONVERSATION_ID, conversationId);
+                                        if (++writes == MAX_BATCH_WRITES) {
+                                            commits.add(batch.commit());
+                                            batch = database.batch();
+                                            writes = 0;
+                                        }
+                                    }
+                                }
+                                batch.set(conversation, Collections.singletonMap(
+                                        Constants.KEY_CONVERSATION_ID_BACKFILLED, true), SetOptions.merge());
+                                commits.add(batch.commit());
+                                Tasks.whenAll(commits)
+                                        .addOnSuccessListener(AppExecutors.mainThread(),
+                                                unused -> backfillListener.onBackfillComplete())
+                                        .addOnFailureListener(AppExecutors.mainThread(),
+                                                backfillListener::onBackfillError);
+                            })
+                            .addOnFailureListener(AppExecutors.mainThread(), backfillListener::onBackfillError);
+                })
+                .addOnFailureListener(AppExecutors.mainThread(), backfillListener::onBackfillError);
+    }
+
+    /**
+     * Builds the query for the messages of one direction of the chat, by sender and receiver.
+     *
+     * @param fromUserId The ID of the user who sent the messages.
+     * @param toUserId   The ID of the user who received them.
+     * @return The query.
+     */
+    private Query getLegacyQuery(String fromUserId, String toUserId) {
+        return database.collection(Constants.KEY_COLLECTION_CHAT)
+                .whereEqualTo(Constants.KEY_SENDER_ID, fromUserId)
+                .whereEqualTo(Constants.KEY_RECEIVER_ID, toUserId);
+    }
+
+    /**
+     * Returns the conversation ID this repository is bound to.
+     *
+     * @return The canonical conversation ID.
+     */
+    public String getConversationId() {
+        return conversationId;
+    }
+
+    /**
+     * Loads the newest page of the conversation.
+     *
+     * The page is read from the local message store first so the chat renders without waiting
+     * for the network. A conversation that was never synced by the live listener, for example
+     * one only known from push messages, loads its newest page from Firestore instead and falls
+     * back to the local page when offline.
+     *
+     * @param limit               The maximum number of messages to load.
+     * @param messagePageListener The listener that receives the page, oldest message first.
+     */
+    public void loadLatest(int limit, MessagePageListener messagePageListener) {
+        AppExecutors.diskIO().execute(() -> {
+            List<ChatMessage> cached = messageStore.getLatest(conversationId, limit);
+            Date synced = conversationStore.getSyncedTimestamp(conversationId);
+            AppExecutors.mainThread().execute(() -> {
+                if (!cached.isEmpty() && synced != null) {
+                    syncedTimestamp = synced;
+                    messagePageListener.onPageLoaded(cached);
+                } else {
+                    loadRemotePage(conversationQuery(Query.Direction.DESCENDING), limit, true,
+                            cached, messagePageListener);
+                }
+            });
+        });
+    }
+
+    /**
+     * Loads the page of messages just before the given message.
+     *
+     * A full page from the local message store is used as is. Otherwise the page is fetched
+     * from Firestore, falling back to the partial local page when offline.
+     *
+     * @param oldest              The oldest message currently loaded, used as the cursor.
+     * @param limit               The maximum number of messages to load.
+     * @param messagePageListener The listener that receives the page, oldest message first.
+     */
+    public void loadOlder(ChatMessage oldest, int limit, MessagePageListener messagePageListener) {
+        AppExecutors.diskIO().execute(() -> {
+            List<ChatMessage> cached = messageStore.getOlder(conversationId, oldest, limit);
+            AppExecutors.mainThread().execute(() -> {
+                if (cached.size() == limit) {
+                    messagePageListener.onPageLoaded(cached);
+                } else {
+                    Query query = conversationQuery(Query.Direction.DESCENDING)
+                            .startAfter(new Date(oldest.timestamp), oldest.id);
+                    loadRemotePage(query, limit, true, cached, messagePageListener);
+                }
+            });
+        });
+    }
+
+    /**
+     * Loads the page of messages just after the given message.
+     *
+     * A full page from the local message store is used as is. Otherwise the page is fetched
+     * from Firestore, falling back to the partial local page when offline.
+     *
+     * @param newest              The newest message currently loaded, used as the cursor.
+     * @param limit               The maximum number of messages to load.
+     * @param messagePageListener The listener that receives the page, oldest message first.
+     */
+    public void loadNewer(ChatMessage newest, int limit, MessagePageListener messagePageListener) {
+        AppExecutors.diskIO().execute(() -> {
+            List<ChatMessage> cached = messageStore.getNewer(conversationId, newest, limit);
+            AppExecutors.mainThread().execute(() -> {
+                if (cached.size() == limit) {
+                    messagePageListener.onPageLoaded(cached);
+                } else {
+                    Query query = conversationQuery(Query.Direction.ASCENDING)
+                            .startAfter(new Date(newest.timestamp), newest.id);
+                    loadRemotePage(query, limit, false, cached, messagePageListener);
+                }
+            });
+        });
+    }
+
+    /**
+     * Runs a paged query, stores the result locally and delivers it in ascending order.
+     *
+     * An empty result served from the local cache while offline says nothing about the
+     * conversation, so it is treated like a failed query.
+     *
+     * @param fallback The local page to deliver if the query fails.
+     */
+    private void loadRemotePage(Query query, int limit, boolean reverse, List<ChatMessage> fallback,
+                                MessagePageListener messagePageListener) {
+        query.limit(limit)
+                .get()
+                .addOnSuccessListener(AppExecutors.snapshotParser(), value -> {
+                    Metrics.recordDocumentsRead("chat.page", value.size(), value.getMetadata().isFromCache());
+                    if (value.isEmpty() && value.getMetadata().isFromCache()) {
+                        AppExecutors.mainThread().execute(() -> {
+                            if (fallback.isEmpty()) {
+                                messagePageListener.onPageError(
+                                        new IllegalStateException("No cached messages while offline"));
+                            } else {
+                                messagePageListener.onPageLoaded(fallback);
+                            }
+                        });
+                        return;
+                    }
+                    if (value.isEmpty() && syncedTimestamp == null) {
+                        emptyOnServer = true;
+                    }
+                    Metrics.beginSection("MessageRepository.parsePage");
+                    List<ChatMessage> page = new ArrayList<>();
+                    for (DocumentSnapshot documentSnapshot : value.getDocuments()) {
+                        page.add(toChatMessage(documentSnapshot));
+                    }
+                    Metrics.endSection();
+                    if (reverse) {
+                        Collections.reverse(page);
+                    }
+                    if (syncedTimestamp == null) {
+                        syncedTimestamp = getLastConfirmedTimestamp(value.getDocuments());
+                    }
+                    List<ChatMessage> acknowledged = getAcknowledged(page);
+                    AppExecutors.diskIO().execute(() -> messageStore.putMessages(conversationId, acknowledged));
+                    AppExecutors.mainThread().execute(() -> messagePageListener.onPageLoaded(page));
+                })
+                .addOnFailureListener(AppExecutors.mainThread(), exception -> {
+                    if (fallback.isEmpty()) {
+                        messagePageListener.onPageError(exception);
+                    } else {
+                        messagePageListener.onPageLoaded(fallback);
+                    }
+                });
+    }
+
+    /**
+     * Builds the conversation query ordered by timestamp, with the document ID as tie-breaker
+     * so page cursors are exact.
+     */
+    private Query conversationQuery(Query.Direction direction) {
+        return database.collection(Constants.KEY_COLLECTION_CHAT)
+                .whereEqualTo(Constants.KEY_CONVERSATION_ID, conversationId)
+                .orderBy(Constants.KEY_TIMESTAMP, direction)
+                .orderBy(FieldPath.documentId(), direction);
+    }
+
+    /**
+     * Starts listening to the conversation with a single query ordered by timestamp.
+     *
+     * Only messages from the last synced timestamp onwards are streamed, so history is left to
+     * the paged loads. Before anything was synced, the listener starts from the current time
+     * instead, unless the server reported the conversation as empty. Messages written to the
+     * store by push handling do not move the synced timestamp, so no gap is left before them.
+     * Added documents are delivered in query order, so the listener receives messages that are
+     * already sorted and never has to re-sort the whole list. Modified and removed documents
+     * are delivered separately, including the pending to sent transition of local writes. Every
+     * change acknowledged by the server is also written to the local message store, and the
+     * synced timestamp advances with every snapshot confirmed by the server. Snapshots are
+     * parsed in the background and only the resulting deltas are posted to the main thread.
+     * Starting again after the listener was removed resumes from the synced timestamp.
+     *
+     * @param messageListener The listener that receives the ordered deltas.
+     * @return The registration used to stop listening. Deltas still queued for the main thread
+     *         are dropped once it is removed.
+     */
+    public ListenerRegistration listenMessages(MessageListener messageListener) {
+        Query query = database.collection(Constants.KEY_COLLECTION_CHAT)
+                .whereEqualTo(Constants.KEY_CONVERSATION_ID, conversationId);
+        Date since = syncedTimestamp;
+        if (since == null && !emptyOnServer) {
+            since = new Date();
+        }
+        if (since != null) {
+            query = query.whereGreaterThanOrEqualTo(Constants.KEY_TIMESTAMP, since);
+        }
+        AtomicBoolean active = new AtomicBoolean(true);
+        ListenerRegistration registration = query.orderBy(Constants.KEY_TIMESTAMP, Query.Direction.ASCENDING)
+                .addSnapshotListener(AppExecutors.snapshotParser(), MetadataChanges.INCLUDE, (value, error) -> {
+                    if (error != null) {
+                        AppExecutors.mainThread().execute(() -> {
+                            if (active.get()) {
+                                messageListener.onMessageError(error);
+                            }
+                        });
+                        return;
+                    }
+                    if (value == null) {
+                        return;
+                    }
+                    long receivedNanos = Metrics.start();
+                    Metrics.recordDocumentsRead("chat.listen", value.getDocumentChanges().size(),
+                            value.getMetadata().isFromCache());
+                    Metrics.beginSection("MessageRepository.parseSnapshot");
+                    List<ChatMessage> added = new ArrayList<>();
+                    List<ChatMessage> modified = new ArrayList<>();
+                    List<ChatMessage> removed = new ArrayList<>();
+                    for (DocumentChange documentChange : value.getDocumentChanges()) {
+                        ChatMessage chatMessage = toChatMessage(documentChange.getDocument());
+                        if (documentChange.getType() == DocumentChange.Type.ADDED) {
+                            added.add(chatMessage);
+                        } else if (documentChange.getType() == DocumentChange.Type.MODIFIED) {
+                            modified.add(chatMessage);
+                        } else {
+                            removed.add(chatMessage);
+                        }
+                    }
+                    Metrics.endSection();
+                    Metrics.recordMicrosSince(Metrics.CHAT_SNAPSHOT_PARSE_US, receivedNanos);
+                    List<DocumentSnapshot> documents = value.getDocuments();
+                    Date synced = null;
+                    if (!value.getMetadata().isFromCache()) {
+                        synced = getLastConfirmedTimestamp(documents);
+                        if (synced != null) {
+                            syncedTimestamp = synced;
+                        }
+                    }
+                    Date newSyncedTimestamp = synced;
+                    List<ChatMessage> acknowledgedAdded = getAcknowledged(added);
+                    List<ChatMessage> acknowledgedModified = getAcknowledged(modified);
+                    AppExecutors.diskIO().execute(() -> {
+                        messageStore.putMessages(conversationId, acknowledgedAdded);
+                        messageStore.putMessages(conversationId, acknowledgedModified);
+                        messageStore.deleteMessages(removed);
+                        if (newSyncedTimestamp != null) {
+                            conversationStore.setSyncedTimestamp(conversationId, newSyncedTimestamp);
+                        }
+                    });
+                    AppExecutors.mainThread().execute(() -> {
+                        if (!active.get()) {
+                            return;
+                        }
+                        if (!added.isEmpty()) {
+                            messageListener.onMessagesAdded(added);
+                        }
+                        if (!modified.isEmpty()) {
+                            messageListener.onMessagesModified(modified);
+                        }
+                        if (!removed.isEmpty()) {
+                            messageListener.onMessagesRemoved(removed);
+                        }
+                        if (!added.isEmpty() || !modified.isEmpty() || !removed.isEmpty()) {
+                            Metrics.recordAtNextFrame(Metrics.CHAT_SNAPSHOT_TO_FRAME_MS, receivedNanos);
+                        }
+                    });
+                });
+        return () -> {
+            active.set(false);
+            registration.remove();
+        };
+    }
+
+    /**
+     * Sends a new message through the outbound queue.
+     *
+     * The returned message is pending and can be shown right away. Its document ID matches
+     * the document written later, so the snapshot listener updates it instead of adding a copy.
+     *
+     * @param text The message text.
+     * @return The local echo of the message.
+     */
+    public ChatMessage sendMessage(String text) {
+        ChatMessage chatMessage = new ChatMessage();
+        chatMessage.id = outboundMessageQueue.newMessageId();
+        chatMessage.senderId = senderId;
+        chatMessage.receiverID = receiverId;
+        chatMessage.message = text;
+        chatMessage.timestamp = System.currentTimeMillis();
+        chatMessage.status = ChatMessage.STATUS_PENDING;
+        outboundMessageQueue.enqueue(chatMessage);
+        return chatMessage;
+    }
+
+    /**
+     * Sets the listener notified when sent messages are acknowledged or finally fail.
+     *
+     * @param sendStatusListener The listener, or null to stop notifications.
+     */
+    public void setSendStatusListener(SendStatusListener sendStatusListener) {
+        outboundMessageQueue.setSendStatusListener(sendStatusListener);
+    }
+
+    /**
+     * Returns whether a message sent from this device is still being written.
+     *
+     * @param messageId The message document ID.
+     * @return True while the message is queued or retrying.
+     */
+    public boolean isOutbound(String messageId) {
+        return outboundMessageQueue.isOutbound(messageId);
+    }
+
+    /**
+     * Returns the newest timestamp among documents the server has confirmed.
+     *
+     * Pending local writes carry the sending device's clock, which may run ahead of the
+     * server, so they never move the synced timestamp.
+     *
+     * @param documents The chat documents, in any order.
+     * @return The newest confirmed timestamp, or null if no document is confirmed.
+     */
+    private static Date getLastConfirmedTimestamp(List<DocumentSnapshot> documents) {
+        Date newest = null;
+        for (DocumentSnapshot documentSnapshot : documents) {
+            if (documentSnapshot.getMetadata().hasPendingWrites()) {
+                continue;
+            }
+            Date timestamp = documentSnapshot.getDate(Constants.KEY_TIMESTAMP);
+            if (timestamp != null && (newest == null || timestamp.after(newest))) {
+                newest = timestamp;
+            }
+        }
+        return newest;
+    }
+
+    /**
+     * Filters out messages the server has not acknowledged yet.
+     *
+     * The message store has no send status, so only acknowledged messages are cached. Pending
+     * writes are kept by Firestore itself and come back through the listener, and they are
+     * cached once they turn into sent messages.
+     *
+     * @param chatMessages The messages to filter.
+     * @return The sent messages, in the same order.
+     */
+    private static List<ChatMessage> getAcknowledged(List<ChatMessage> chatMessages) {
+        List<ChatMessage> acknowledged = new ArrayList<>(chatMessages.size());
+        for (ChatMessage chatMessage : chatMessages) {
+            if (chatMessage.status == ChatMessage.STATUS_SENT) {
+                acknowledged.add(chatMessage);
+            }
+        }
+        return acknowledged;
+    }
+
+    /**
+     * Maps a chat document to a ChatMessage.
+     *
+     * @param documentSnapshot The chat document.
+     * @return The mapped ChatMessage.
+     */
+    private ChatMessage toChatMessage(DocumentSnapshot documentSnapshot) {
+        ChatMessage chatMessage = new ChatMessage();
+        chatMessage.id = documentSnapshot.getId();
+        chatMessage.senderId = documentSnapshot.getString(Constants.KEY_SENDER_ID);
+        chatMessage.receiverID = documentSnapshot.getString(Constants.KEY_RECEIVER_ID);
+        chatMessage.message = documentSnapshot.getString(Constants.KEY_MESSAGE);
+        Date timestamp = documentSnapshot.getDate(Constants.KEY_TIMESTAMP);
+        chatMessage.timestamp = timestamp != null ? timestamp.getTime() : 0;
+        chatMessage.status = documentSnapshot.getMetadata().hasPendingWrites()
+                ? ChatMessage.STATUS_PENDING : ChatMessage.STATUS_SENT;
+        return chatMessage;
+    }
+}
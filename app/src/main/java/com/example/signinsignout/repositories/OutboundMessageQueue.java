@@ -0,0 +1,185 @@
+package com.example.signinsignout.repositories;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.signinsignout.listeners.SendStatusListener;
+import com.example.signinsignout.metrics.Metrics;
+import com.example.signinsignout.models.ChatMessage;
+import com.example.signinsignout.utilities.Constants;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Queue that coalesces outgoing messages into batched writes and retries failed batches
+ * with exponential backoff.
+ *
+ * Messages sent within a short window are committed together, so bursty typing costs one
+ * round trip instead of one per message. All methods must be called from the main thread.
+ */
+public class OutboundMessageQueue {
+
+    private static final long COALESCE_WINDOW_MS = 250;
+    private static final int MAX_BATCH_SIZE = 400;
+    private static final long RETRY_BASE_DELAY_MS = 1000;
+    private static final long RETRY_MAX_DELAY_MS = 30000;
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final FirebaseFirestore database;
+    private final CollectionReference chatCollection;
+    private final String conversationId;
+    private final DocumentReference conversationReference;
+    private final Map<String, Object> participantFields;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final HashMap<String, Object> messageFields = new HashMap<>();
+    private final HashSet<String> outboundIds = new HashSet<>();
+
+    private List<ChatMessage> pending = new ArrayList<>();
+    private SendStatusListener sendStatusListener;
+
+    /**
+     * Constructor for the OutboundMessageQueue.
+     *
+     * @param database          The Firestore instance to write to.
+     * @param conversationId    The conversation the queued messages belong to.
+     * @param participantFields The participant snapshot written with the conversation summary.
+     */
+    public OutboundMessageQueue(FirebaseFirestore database, String conversationId,
+                                Map<String, Object> participantFields) {
+        this.database = database;
+        this.chatCollection = database.collection(Constants.KEY_COLLECTION_CHAT);
+        this.conversationId = conversationId;
+        this.conversationReference = database.collection(Constants.KEY_COLLECTION_CONVERSATIONS)
+                .document(conversationId);
+        this.participantFields = participantFields;
+    }
+
+    /**
+     * Sets the listener notified when queued messages are sent or finally fail.
+     *
+     * @param sendStatusListener The listener, or null to stop notifications.
+     */
+    public void setSendStatusListener(SendStatusListener sendStatusListener) {
+        this.sendStatusListener = sendStatusListener;
+    }
+
+    /**
+     * Returns a new document ID for a message, so the local echo and the stored document match.
+     *
+     * @return A new chat document ID.
+     */
+    public String newMessageId() {
+        return chatCollection.document().getId();
+    }
+
+    /**
+     * Queues a message for the next batch.
+     *
+     * @param chatMessage The message to send, with its document ID already assigned.
+     */
+    public void enqueue(ChatMessage chatMessage) {
+        outboundIds.add(chatMessage.id);
+        pending.add(chatMessage);
+        if (pending.size() >= MAX_BATCH_SIZE) {
+            handler.removeCallbacks(flushRunnable);
+            flush();
+        } else if (pending.size() == 1) {
+            handler.postDelayed(flushRunnable, COALESCE_WINDOW_MS);
+        }
+    }
+
+    /**
+     * Returns whether a message is queued or being written.
+     *
+     * @param messageId The message document ID.
+     * @return True while the message has not been acknowledged or given up on.
+     */
+    public boolean isOutbound(String messageId) {
+        return outboundIds.contains(messageId);
+    }
+
+    private final Runnable flushRunnable = this::flush;
+
+    /**
+     * Commits every pending message in one batch.
+     */
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<ChatMessage> batch = pending;
+        pending = new ArrayList<>();
+        commit(batch, 1);
+    }
+
+    /**
+     * Writes a batch of messages together with the conversation summary update, scheduling a
+     * retry with backoff on failure.
+     *
+     * The summary takes the last message of the batch and raises the receiver's unread count
+     * by the batch size, all in the same atomic commit.
+     *
+     * @param batch   The messages to write.
+     * @param attempt The attempt number, starting at 1.
+     */
+    private void commit(List<ChatMessage> batch, int attempt) {
+        WriteBatch writeBatch = database.batch();
+        for (ChatMessage chatMessage : batch) {
+            messageFields.clear();
+            messageFields.put(Constants.KEY_CONVERSATION_ID, conversationId);
+            messageFields.put(Constants.KEY_SENDER_ID, chatMessage.senderId);
+            messageFields.put(Constants.KEY_RECEIVER_ID, chatMessage.receiverID);
+            messageFields.put(Constants.KEY_MESSAGE, chatMessage.message);
+            messageFields.put(Constants.KEY_TIMESTAMP, new Date(chatMessage.timestamp));
+            writeBatch.set(chatCollection.document(chatMessage.id), messageFields);
+        }
+        ChatMessage last = batch.get(batch.size() - 1);
+        HashMap<String, Object> unreadCounts = new HashMap<>();
+        unreadCounts.put(last.receiverID, FieldValue.increment(batch.size()));
+        HashMap<String, Object> summary = new HashMap<>(participantFields);
+        summary.put(Constants.KEY_LAST_MESSAGE, last.message);
+        summary.put(Constants.KEY_LAST_SENDER_ID, last.senderId);
+        summary.put(Constants.KEY_TIMESTAMP, new Date(last.timestamp));
+        summary.put(Constants.KEY_UNREAD_COUNTS, unreadCounts);
+        writeBatch.set(conversationReference, summary, SetOptions.merge());
+        long startNanos = Metrics.start();
+        writeBatch.commit()
+                .addOnSuccessListener(unused -> {
+                    Metrics.recordMillisSince(Metrics.SEND_COMMIT_MS, startNanos);
+                    long now = System.currentTimeMillis();
+                    for (ChatMessage chatMessage : batch) {
+                        outboundIds.remove(chatMessage.id);
+                        chatMessage.status = ChatMessage.STATUS_SENT;
+                        Metrics.record(Metrics.SEND_ROUND_TRIP_MS, now - chatMessage.timestamp);
+                    }
+                    if (sendStatusListener != null) {
+                        sendStatusListener.onMessagesSent(batch);
+                    }
+                })
+                .addOnFailureListener(exception -> {
+                    if (attempt < MAX_ATTEMPTS) {
+                        long delay = Math.min(RETRY_BASE_DELAY_MS << (attempt - 1), RETRY_MAX_DELAY_MS);
+                        handler.postDelayed(() -> commit(batch, attempt + 1), delay);
+                        return;
+                    }
+                    for (ChatMessage chatMessage : batch) {
+                        outboundIds.remove(chatMessage.id);
+                        chatMessage.status = ChatMessage.STATUS_FAILED;
+                    }
+                    if (sendStatusListener != null) {
+                        sendStatusListener.onMessagesFailed(batch);
+                    }
+                });
+    }
+}
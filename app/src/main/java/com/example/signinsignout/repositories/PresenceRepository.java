@@ -0,0 +1,170 @@
+package com.example.signinsignout.repositories;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.signinsignout.listeners.PresenceListener;
+import com.example.signinsignout.metrics.Metrics;
+import com.example.signinsignout.utilities.AppExecutors;
+import com.example.signinsignout.utilities.Constants;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Repository for presence and typing state.
+ *
+ * Presence lives in one small document per user and typing in one document per conversation,
+ * so neither invalidates the user directory or the conversation summaries. A typing entry
+ * holds the time it expires, so a client that stops writing is never shown as typing forever.
+ */
+public class PresenceRepository {
+
+    /** How long a typing entry stays valid without being refreshed. */
+    public static final long TYPING_TTL_MS = 6000;
+
+    /** How long a heartbeat keeps a user online without being refreshed. */
+    public static final long PRESENCE_TTL_MS = 3 * 60_000;
+
+    private final FirebaseFirestore database;
+    private final String currentUserId;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Constructor for the PresenceRepository.
+     *
+     * @param database      The Firestore instance to read from and write to.
+     * @param currentUserId The ID of the signed-in user.
+     */
+    public PresenceRepository(FirebaseFirestore database, String currentUserId) {
+        this.database = database;
+        this.currentUserId = currentUserId;
+    }
+
+    /**
+     * Writes the signed-in user's presence, stamping it with the server time.
+     *
+     * @param online True while the app is in the foreground.
+     */
+    public void setOnline(boolean online) {
+        HashMap<String, Object> presence = new HashMap<>();
+        presence.put(Constants.KEY_ONLINE, online);
+        presence.put(Constants.KEY_LAST_SEEN, FieldValue.serverTimestamp());
+        database.collection(Constants.KEY_COLLECTION_PRESENCE)
+                .document(currentUserId)
+                .set(presence);
+    }
+
+    /**
+     * Marks the signed-in user as typing in a conversation, or clears the mark.
+     *
+     * @param conversationId The conversation being typed in.
+     * @param typing         True to mark the user as typing for the next TYPING_TTL_MS.
+     */
+    public void setTyping(String conversationId, boolean typing) {
+        Object value = typing ? new Date(System.currentTimeMillis() + TYPING_TTL_MS) : FieldValue.delete();
+        database.collection(Constants.KEY_COLLECTION_TYPING)
+                .document(conversationId)
+                .set(Collections.singletonMap(currentUserId, value), SetOptions.merge());
+    }
+
+    /**
+     * Listens to another user's presence and typing state in a conversation.
+     *
+     * A user counts as online only while their last heartbeat is recent, so a client that was
+     * killed without going offline drops out on its own. Online and typing states are delivered
+     * again as false once the heartbeat or the typing entry expires, unless a newer snapshot
+     * arrived first, so neither stays on screen without further writes.
+     *
+     * @param userId           The user to watch.
+     * @param conversationId   The conversation the typing state is read from.
+     * @param presenceListener The listener called on the main thread.
+     * @return The registration used to stop listening to both documents.
+     */
+    public ListenerRegistration listenPresence(String userId, String conversationId,
+                                               PresenceListener presenceListener) {
+        AtomicBoolean active = new AtomicBoolean(true);
+        AtomicReference<Date> lastSeenAt = new AtomicReference<>();
+        Runnable presenceExpired = () -> {
+            if (active.get()) {
+                presenceListener.onPresenceChanged(false, lastSeenAt.get());
+            }
+        };
+        Runnable typingExpired = () -> {
+            if (active.get()) {
+                presenceListener.onTypingChanged(false);
+            }
+        };
+        ListenerRegistration presenceRegistration = database.collection(Constants.KEY_COLLECTION_PRESENCE)
+                .document(userId)
+                .addSnapshotListener(AppExecutors.snapshotParser(), (value, error) -> {
+                    if (error != null) {
+                        AppExecutors.mainThread().execute(() -> {
+                            if (active.get()) {
+                                presenceListener.onPresenceError(error);
+                            }
+                        });
+                        return;
+                    }
+                    if (value == null) {
+                        return;
+                    }
+                    Metrics.recordDocumentsRead("presence.user", 1, value.getMetadata().isFromCache());
+                    if (!value.exists()) {
+                        return;
+                    }
+                    Date lastSeen = value.getDate(Constants.KEY_LAST_SEEN);
+                    long onlineForMs = Boolean.TRUE.equals(value.getBoolean(Constants.KEY_ONLINE))
+                            && lastSeen != null
+                            ? lastSeen.getTime() + PRESENCE_TTL_MS - System.currentTimeMillis() : 0;
+                    AppExecutors.mainThread().execute(() -> {
+                        handler.removeCallbacks(presenceExpired);
+                        if (!active.get()) {
+                            return;
+                        }
+                        lastSeenAt.set(lastSeen);
+                        presenceListener.onPresenceChanged(onlineForMs > 0, lastSeen);
+                        if (onlineForMs > 0) {
+                            handler.postDelayed(presenceExpired, onlineForMs);
+                        }
+                    });
+                });
+        ListenerRegistration typingRegistration = database.collection(Constants.KEY_COLLECTION_TYPING)
+                .document(conversationId)
+                .addSnapshotListener(AppExecutors.snapshotParser(), (value, error) -> {
+                    if (error != null || value == null) {
+                        return;
+                    }
+                    Metrics.recordDocumentsRead("presence.typing", 1, value.getMetadata().isFromCache());
+                    Object expiresAt = value.get(FieldPath.of(userId));
+                    long typingForMs = expiresAt instanceof Timestamp
+                            ? ((Timestamp) expiresAt).toDate().getTime() - System.currentTimeMillis() : 0;
+                    AppExecutors.mainThread().execute(() -> {
+                        handler.removeCallbacks(typingExpired);
+                        if (!active.get()) {
+                            return;
+                        }
+                        presenceListener.onTypingChanged(typingForMs > 0);
+                        if (typingForMs > 0) {
+                            handler.postDelayed(typingExpired, typingForMs);
+                        }
+                    });
+                });
+        return () -> {
+            active.set(false);
+            handler.removeCallbacks(presenceExpired);
+            handler.removeCallbacks(typingExpired);
+            presenceRegistration.remove();
+            typingRegistration.remove();
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.signinsignout.repositories;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Turns the messages a user sees into a small number of read cursor writes for one conversation.
+ *
+ * Seen messages only move a pending cursor forward. The cursor is written once FLUSH_DELAY_MS
+ * after the first unwritten message was seen, or when the chat stops, so opening a chat with
+ * hundreds of unread messages, or a burst of incoming ones, costs a single write. Must be used
+ * from the main thread.
+ */
+public class ReadReceiptNotifier {
+
+    private static final long FLUSH_DELAY_MS = 1000;
+
+    private final ConversationRepository conversationRepository;
+    private final String conversationId;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flush;
+
+    private long pendingReadUpTo;
+    private long writtenReadUpTo;
+
+    /**
+     * Constructor for the ReadReceiptNotifier.
+     *
+     * @param conversationRepository The repository the read cursor is written through.
+     * @param conversationId         The conversation being read.
+     */
+    public ReadReceiptNotifier(ConversationRepository conversationRepository, String conversationId) {
+        this.conversationRepository = conversationRepository;
+        this.conversationId = conversationId;
+    }
+
+    /**
+     * Reports that the messages up to a time were shown to the user.
+     *
+     * @param timestamp The time of the newest shown message from the other participant.
+     */
+    public void onMessagesSeen(long timestamp) {
+        if (timestamp <= pendingReadUpTo) {
+            return;
+        }
+        boolean scheduled = pendingReadUpTo > writtenReadUpTo;
+        pendingReadUpTo = timestamp;
+        if (!scheduled) {
+            handler.postDelayed(flushRunnable, FLUSH_DELAY_MS);
+        }
+    }
+
+    /**
+     * Writes the pending cursor right away if it moved since the last write.
+     */
+    public void flush() {
+        handler.removeCallbacks(flushRunnable);
+        if (pendingReadUpTo > writtenReadUpTo) {
+            conversationRepository.markConversationRead(conversationId, pendingReadUpTo);
+            writtenReadUpTo = pendingReadUpTo;
+        }
+    }
+}
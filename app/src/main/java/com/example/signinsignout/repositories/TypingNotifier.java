@@ -0,0 +1,68 @@
+package com.example.signinsignout.repositories;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+/**
+ * Turns keystrokes into a small number of typing writes for one conversation.
+ *
+ * The first keystroke marks the user as typing right away. While typing continues, the mark is
+ * refreshed at most once per WRITE_INTERVAL_MS, well within its expiry. The mark is cleared
+ * once the input has been idle for IDLE_MS, emptied or sent. Must be used from the main thread.
+ */
+public class TypingNotifier {
+
+    private static final long WRITE_INTERVAL_MS = 4000;
+    private static final long IDLE_MS = 3000;
+
+    private final PresenceRepository presenceRepository;
+    private final String conversationId;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable idleRunnable = this::stop;
+
+    private boolean typing;
+    private long lastWriteTime;
+
+    /**
+     * Constructor for the TypingNotifier.
+     *
+     * @param presenceRepository The repository the typing state is written through.
+     * @param conversationId     The conversation being typed in.
+     */
+    public TypingNotifier(PresenceRepository presenceRepository, String conversationId) {
+        this.presenceRepository = presenceRepository;
+        this.conversationId = conversationId;
+    }
+
+    /**
+     * Reports a change of the message input.
+     *
+     * @param isEmpty True if the input is now empty.
+     */
+    public void onInputChanged(boolean isEmpty) {
+        if (isEmpty) {
+            stop();
+            return;
+        }
+        long now = SystemClock.elapsedRealtime();
+        if (!typing || now - lastWriteTime >= WRITE_INTERVAL_MS) {
+            presenceRepository.setTyping(conversationId, true);
+            typing = true;
+            lastWriteTime = now;
+        }
+        handler.removeCallbacks(idleRunnable);
+        handler.postDelayed(idleRunnable, IDLE_MS);
+    }
+
+    /**
+     * Clears the typing mark if it is set.
+     */
+    public void stop() {
+        handler.removeCallbacks(idleRunnable);
+        if (typing) {
+            typing = false;
+            presenceRepository.setTyping(conversationId, false);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.signinsignout.repositories;
+
+import com.example.signinsignout.listeners.UserLoadListener;
+import com.example.signinsignout.listeners.UserPageListener;
+import com.example.signinsignout.metrics.Metrics;
+import com.example.signinsignout.models.User;
+import com.example.signinsignout.utilities.AppExecutors;
+import com.example.signinsignout.utilities.Constants;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Repository that pages through the user directory.
+ *
+ * Users are ordered and searched on lowercase name and email fields, so every page is a
+ * single indexed query.
+ */
+public class UserRepository {
+
+    private final FirebaseFirestore database;
+    private final String currentUserId;
+
+    /**
+     * Constructor for the UserRepository.
+     *
+     * @param database      The Firestore instance to read from.
+     * @param currentUserId The ID of the signed-in user, who is left out of every page.
+     */
+    public UserRepository(FirebaseFirestore database, String currentUserId) {
+        this.database = database;
+        this.currentUserId = currentUserId;
+    }
+
+    /**
+     * Builds the lowercase field value used to order and search users by name.
+     *
+     * @param firstName The user's first name.
+     * @param lastName  The user's last name.
+     * @return The lowercase full name.
+     */
+    public static String getSearchName(String firstName, String lastName) {
+        return (firstName + " " + lastName).trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Builds the lowercase field value used to search users by email.
+     *
+     * @param email The user's email.
+     * @return The lowercase email.
+     */
+    public static String getSearchEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Loads one page of users, optionally filtered by a name or email prefix.
+     *
+     * Searches containing an "@" match the email prefix, others match the name prefix.
+     *
+     * @param search           The prefix to search for, or an empty string for every user.
+     * @param lastDocument     The last document of the previous page, or null for the first page.
+     * @param limit            The maximum number of users to load.
+     * @param userPageListener The listener that receives the page.
+     */
+    public void loadUsers(String search, DocumentSnapshot lastDocument, int limit,
+                          UserPageListener userPageListener) {
+        String prefix = search.trim().toLowerCase(Locale.ROOT);
+        String field = prefix.contains("@") ? Constants.KEY_SEARCH_EMAIL : Constants.KEY_SEARCH_NAME;
+
+        Query query = database.collection(Constants.KEY_COLLECTION_USERS)
+                .whereNotEqualTo(FieldPath.documentId(), currentUserId);
+        if (!prefix.isEmpty()) {
+            query = query.whereGreaterThanOrEqualTo(field, prefix)
+                    .whereLessThan(field, prefix + "\uf8ff");
+        }
+        query = query.orderBy(field).orderBy(FieldPath.documentId());
+        if (lastDocument != null) {
+            query = query.startAfter(lastDocument);
+        }
+        query.limit(limit)
+                .get()
+                .addOnSuccessListener(AppExecutors.snapshotParser(), value -> {
+                    Metrics.recordDocumentsRead("users.page", value.size(), value.getMetadata().isFromCache());
+                    List<User> users = new ArrayList<>();
+                    for (DocumentSnapshot documentSnapshot : value.getDocuments()) {
+                        users.add(toUser(documentSnapshot));
+                    }
+                    List<DocumentSnapshot> documents = value.getDocuments();
+                    DocumentSnapshot last = documents.isEmpty() ? null : documents.get(documents.size() - 1);
+                    AppExecutors.mainThread().execute(() -> userPageListener.onUsersLoaded(users, last));
+                })
+                .addOnFailureListener(AppExecutors.mainThread(), userPageListener::onUsersError);
+    }
+
+    /**
+     * Loads a single user by ID.
+     *
+     * @param userId           The user's document ID.
+     * @param userLoadListener The listener that receives the user.
+     */
+    public void getUser(String userId, UserLoadListener userLoadListener) {
+        database.collection(Constants.KEY_COLLECTION_USERS)
+                .document(userId)
+                .get()
+                .addOnSuccessListener(AppExecutors.snapshotParser(), documentSnapshot -> {
+                    Metrics.recordDocumentsRead("users.get", 1, documentSnapshot.getMetadata().isFromCache());
+                    if (!documentSnapshot.exists()) {
+                        AppExecutors.mainThread().execute(() -> userLoadListener.onUserError(
+                                new IllegalArgumentException("No user " + userId)));
+                        return;
+                    }
+                    User user = toUser(documentSnapshot);
+                    AppExecutors.mainThread().execute(() -> userLoadListener.onUserLoaded(user));
+                })
+                .addOnFailureListener(AppExecutors.mainThread(), userLoadListener::onUserError);
+    }
+
+    /**
+     * Maps a user document to a User.
+     *
+     * @param documentSnapshot The user document.
+     * @return The mapped User.
+     */
+    private User toUser(DocumentSnapshot documentSnapshot) {
+        User user = new User();
+        user.fname = documentSnapshot.getString(Constants.KEY_FIRST_NAME);
+        user.lname = documentSnapshot.getString(Constants.KEY_LAST_NAME);
+        user.email = documentSnapshot.getString(Constants.KEY_EMAIL);
+        user.image = documentSnapshot.getString(Constants.KEY_IMAGE);
+        user.imageRef = documentSnapshot.getString(Constants.KEY_IMAGE_REF);
+        user.token = documentSnapshot.getString(Constants.KEY_FCM_TOKEN);
+        user.id = documentSnapshot.getId();
+        return user;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.signinsignout.utilities;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Utility class holding the shared executors used to keep work off the main thread.
+ */
+public class AppExecutors {
+
+    private static final ExecutorService IMAGE_DECODER = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+
+    private static final ExecutorService DISK_IO = Executors.newSingleThreadExecutor();
+
+    private static final ExecutorService SNAPSHOT_PARSER = Executors.newSingleThreadExecutor();
+
+    private static final ExecutorService PASSWORD_HASHER = Executors.newSingleThreadExecutor();
+
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private static final Executor MAIN_THREAD = MAIN_HANDLER::post;
+
+    private AppExecutors() {
+    }
+
+    /**
+     * Returns the executor used to decode images.
+     *
+     * @return The image decoding executor.
+     */
+    public static ExecutorService imageDecoder() {
+        return IMAGE_DECODER;
+    }
+
+    /**
+     * Returns the executor used for local database reads and writes.
+     *
+     * @return The disk executor.
+     */
+    public static ExecutorService diskIO() {
+        return DISK_IO;
+    }
+
+    /**
+     * Returns the executor Firestore results are delivered on, so documents are parsed off the
+     * main thread. It runs one task at a time, so snapshots are handled in the order they arrive.
+     *
+     * @return The snapshot parsing executor.
+     */
+    public static ExecutorService snapshotParser() {
+        return SNAPSHOT_PARSER;
+    }
+
+    /**
+     * Returns the executor passwords are hashed on, so the deliberately slow hash never blocks
+     * the main thread or the other executors.
+     *
+     * @return The password hashing executor.
+     */
+    public static ExecutorService passwordHasher() {
+        return PASSWORD_HASHER;
+    }
+
+    /**
+     * Returns an executor that runs tasks on the main thread.
+     *
+     * @return The main thread executor.
+     */
+    public static Executor mainThread() {
+        return MAIN_THREAD;
+    }
+}
@@ -21,10 +21,28 @@ public class Constants {
     /** Key for the email field in the user database. */
     public static final String KEY_EMAIL = "email";
 
-    /** Key for the password field in the user database. */
+    /** Key for the lowercase full name field used to order and search users. */
+    public static final String KEY_SEARCH_NAME = "searchName";
+
+    /** Key for the lowercase email field used to search users. */
+    public static final String KEY_SEARCH_EMAIL = "searchEmail";
+
+    /** Key for the legacy plaintext password field in the user database, removed on migration. */
     public static final String KEY_PASSWORD = "password";
 
-    /** Key for the user ID field in the user database. */
+    /** Key for the collection of sign-in credentials, keyed by lowercase email. */
+    public static final String KEY_COLLECTION_CREDENTIALS = "credentials";
+
+    /** Key for the salted password hash of a credentials document. */
+    public static final String KEY_PASSWORD_HASH = "passwordHash";
+
+    /** Key for the password salt of a credentials document. */
+    public static final String KEY_PASSWORD_SALT = "passwordSalt";
+
+    /** Key for the number of hash iterations of a credentials document. */
+    public static final String KEY_PASSWORD_ITERATIONS = "passwordIterations";
+
+    /** Key for the user ID, in the preferences, credentials documents and chat intents. */
     public static final String KEY_USER_ID = "userid";
 
     /** Key to check if a user is signed in, stored in shared preferences. */
@@ -36,16 +54,66 @@ public class Constants {
     /** Key for the image field in the user database. */
     public static final String KEY_IMAGE = "image";
 
+    /** Key for the image store reference field in the user database. */
+    public static final String KEY_IMAGE_REF = "imageRef";
+
     /**
      * Constants used throughout the application for keys and identifiers.
      */
     public static final String KEY_FCM_TOKEN = "fcmToken";
 
-    public static final String KEY_USER = "user";
     public static final String KEY_COLLECTION_CHAT = "chat";
     public static final String KEY_SENDER_ID = "senderId";
     public static final String KEY_RECEIVER_ID = "receiverId";
     public static final String KEY_MESSAGE = "message";
     public static final String KEY_TIMESTAMP = "timestamp";
 
+    /** Key for the chat document ID carried in push data payloads. */
+    public static final String KEY_MESSAGE_ID = "messageId";
+
+    /** Key for the canonical conversation ID shared by both participants of a chat. */
+    public static final String KEY_CONVERSATION_ID = "conversationId";
+
+    /** Key for the summary field set once every message of the conversation has its ID. */
+    public static final String KEY_CONVERSATION_ID_BACKFILLED = "conversationIdBackfilled";
+
+    /** Key for the collection of per-conversation summaries shown in the recent chats list. */
+    public static final String KEY_COLLECTION_CONVERSATIONS = "conversations";
+
+    /** Key for the list of participant IDs of a conversation summary. */
+    public static final String KEY_PARTICIPANTS = "participants";
+
+    /** Key for the participant first names of a conversation summary, keyed by user ID. */
+    public static final String KEY_PARTICIPANT_NAMES = "participantNames";
+
+    /** Key for the participant image references of a conversation summary, keyed by user ID. */
+    public static final String KEY_PARTICIPANT_IMAGE_REFS = "participantImageRefs";
+
+    /** Key for the text of the last message of a conversation summary. */
+    public static final String KEY_LAST_MESSAGE = "lastMessage";
+
+    /** Key for the sender of the last message of a conversation summary. */
+    public static final String KEY_LAST_SENDER_ID = "lastSenderId";
+
+    /** Key for the unread message counts of a conversation summary, keyed by user ID. */
+    public static final String KEY_UNREAD_COUNTS = "unreadCounts";
+
+    /** Key for the time up to which each participant received a conversation's messages, keyed by user ID. */
+    public static final String KEY_DELIVERED_UP_TO = "deliveredUpTo";
+
+    /** Key for the time up to which each participant read a conversation's messages, keyed by user ID. */
+    public static final String KEY_READ_UP_TO = "readUpTo";
+
+    /** Key for the collection of per-user presence documents, kept apart from the profiles. */
+    public static final String KEY_COLLECTION_PRESENCE = "presence";
+
+    /** Key for whether a user has the app in the foreground. */
+    public static final String KEY_ONLINE = "online";
+
+    /** Key for the server time of a user's last presence heartbeat. */
+    public static final String KEY_LAST_SEEN = "lastSeen";
+
+    /** Key for the collection of per-conversation typing documents, keyed by conversation ID. */
+    public static final String KEY_COLLECTION_TYPING = "typing";
+
 }
@@ -0,0 +1,175 @@
+package com.example.signinsignout.utilities;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.os.Build;
+
+import com.example.signinsignout.listeners.ImageEncodeListener;
+import com.example.signinsignout.metrics.Metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Utility class that turns a picked image into WebP size variants off the main thread.
+ *
+ * The image bounds are read first, so the image is decoded once at the smallest power-of-two
+ * sample size that still covers the largest variant. Every variant is then scaled from that
+ * single decode. A 12MP photo never has to fit in memory at full resolution.
+ */
+public class ImageEncoder {
+
+    private static final int QUALITY = 75;
+
+    private ImageEncoder() {
+    }
+
+    /**
+     * Encodes an image into one WebP variant per requested width.
+     *
+     * @param contentResolver      The resolver used to open the image.
+     * @param imageUri             The picked image.
+     * @param widths               The variant widths; heights keep the aspect ratio.
+     * @param imageEncodeListener  The listener that receives the variants in the order of the
+     *                             widths, on the main thread. The preview is the largest variant.
+     */
+    public static void encode(ContentResolver contentResolver, Uri imageUri, int[] widths,
+                              ImageEncodeListener imageEncodeListener) {
+        AppExecutors.imageDecoder().execute(() -> {
+            long startNanos = Metrics.start();
+            Metrics.beginSection("ImageEncoder.encode");
+            try {
+                int largest = 0;
+                for (int i = 1; i < widths.length; i++) {
+                    if (widths[i] > widths[largest]) {
+                        largest = i;
+                    }
+                }
+                Bitmap source = decodeSampled(contentResolver, imageUri, widths[largest]);
+                Bitmap preview = null;
+                byte[][] variants = new byte[widths.length][];
+                for (int i = 0; i < widths.length; i++) {
+                    Bitmap scaled = scaleToWidth(source, widths[i]);
+                    variants[i] = compress(scaled);
+                    Metrics.record(Metrics.IMAGE_VARIANT_BYTES, variants[i].length);
+                    if (i == largest) {
+                        preview = scaled;
+                    } else if (scaled != source) {
+                        scaled.recycle();
+                    }
+                }
+                if (preview != source) {
+                    source.recycle();
+                }
+                Metrics.recordMillisSince(Metrics.IMAGE_ENCODE_MS, startNanos);
+                Bitmap result = preview;
+                AppExecutors.mainThread().execute(() -> imageEncodeListener.onImageEncoded(result, variants));
+            } catch (IOException | RuntimeException e) {
+                AppExecutors.mainThread().execute(() -> imageEncodeListener.onImageEncodeError(e));
+            } finally {
+                Metrics.endSection();
+            }
+        });
+    }
+
+    /**
+     * Encodes an already encoded image, such as a legacy Base64 profile image, into one WebP
+     * variant per requested width. Blocks, so it must be called off the main thread.
+     *
+     * @param image  The encoded image bytes.
+     * @param widths The variant widths; heights keep the aspect ratio.
+     * @return The variants in the order of the widths.
+     * @throws IOException If the image cannot be decoded.
+     */
+    public static byte[][] encode(byte[] image, int[] widths) throws IOException {
+        Bitmap source = BitmapFactory.decodeByteArray(image, 0, image.length);
+        if (source == null) {
+            throw new IOException("Unable to decode image");
+        }
+        byte[][] variants = new byte[widths.length][];
+        for (int i = 0; i < widths.length; i++) {
+            Bitmap scaled = scaleToWidth(source, widths[i]);
+            variants[i] = compress(scaled);
+            Metrics.record(Metrics.IMAGE_VARIANT_BYTES, variants[i].length);
+            if (scaled != source) {
+                scaled.recycle();
+            }
+        }
+        source.recycle();
+        return variants;
+    }
+
+    /**
+     * Decodes an image at the largest power-of-two reduction that keeps it at least as wide as
+     * the target.
+     *
+     * @param contentResolver The resolver used to open the image.
+     * @param imageUri        The image to decode.
+     * @param targetWidth     The width of the largest variant.
+     * @return The sampled bitmap.
+     * @throws IOException If the image cannot be read or decoded.
+     */
+    private static Bitmap decodeSampled(ContentResolver contentResolver, Uri imageUri, int targetWidth)
+            throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream inputStream = open(contentResolver, imageUri)) {
+            BitmapFactory.decodeStream(inputStream, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Unable to read image bounds");
+        }
+        int sampleSize = 1;
+        while (options.outWidth / (sampleSize * 2) >= targetWidth) {
+            sampleSize *= 2;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        Bitmap bitmap;
+        try (InputStream inputStream = open(contentResolver, imageUri)) {
+            bitmap = BitmapFactory.decodeStream(inputStream, null, options);
+        }
+        if (bitmap == null) {
+            throw new IOException("Unable to decode image");
+        }
+        return bitmap;
+    }
+
+    /**
+     * Opens an image for reading.
+     */
+    private static InputStream open(ContentResolver contentResolver, Uri imageUri) throws IOException {
+        InputStream inputStream = contentResolver.openInputStream(imageUri);
+        if (inputStream == null) {
+            throw new FileNotFoundException(imageUri.toString());
+        }
+        return inputStream;
+    }
+
+    /**
+     * Scales a bitmap down to a width, keeping the aspect ratio. Narrower bitmaps are returned as is.
+     */
+    private static Bitmap scaleToWidth(Bitmap bitmap, int width) {
+        if (bitmap.getWidth() <= width) {
+            return bitmap;
+        }
+        int height = Math.max(1, bitmap.getHeight() * width / bitmap.getWidth());
+        return Bitmap.createScaledBitmap(bitmap, width, height, true);
+    }
+
+    /**
+     * Encodes a bitmap as lossy WebP.
+     */
+    @SuppressWarnings("deprecation")
+    private static byte[] compress(Bitmap bitmap) {
+        Bitmap.CompressFormat format = Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY : Bitmap.CompressFormat.WEBP;
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        bitmap.compress(format, QUALITY, byteArrayOutputStream);
+        return byteArrayOutputStream.toByteArray();
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.signinsignout.utilities;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Base64;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import com.example.signinsignout.firebase.ImageStore;
+import com.example.signinsignout.metrics.Metrics;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Shared pipeline that loads profile images by reference from the image store, or decodes
+ * Base64 images of older users, off the main thread and keeps the decoded bitmaps in a
+ * memory-bounded LRU cache.
+ *
+ * All public methods must be called from the main thread.
+ */
+public class ImageLoader {
+
+    private static ImageLoader instance;
+
+    private final LruCache<String, Bitmap> bitmapCache;
+    private final HashMap<String, List<WeakReference<ImageView>>> pendingTargets = new HashMap<>();
+    private ImageStore imageStore;
+
+    /**
+     * Returns the process-wide image loader.
+     *
+     * @return The shared ImageLoader.
+     */
+    public static ImageLoader getInstance() {
+        if (instance == null) {
+            instance = new ImageLoader();
+        }
+        return instance;
+    }
+
+    /**
+     * Initializes the bitmap cache with an eighth of the available heap, measured in kilobytes.
+     */
+    private ImageLoader() {
+        int cacheSize = (int) (Runtime.getRuntime().maxMemory() / 1024 / 8);
+        bitmapCache = new LruCache<String, Bitmap>(cacheSize) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount() / 1024;
+            }
+        };
+    }
+
+    /**
+     * Builds the cache key for a user's image, so a changed image never hits a stale entry.
+     *
+     * @param userId       The ID of the user owning the image.
+     * @param encodedImage The Base64 encoded image.
+     * @return The cache key.
+     */
+    public static String getCacheKey(String userId, String encodedImage) {
+        return userId + ":" + encodedImage.hashCode();
+    }
+
+    /**
+     * Shows a user's profile image in an ImageView.
+     *
+     * Users with an image reference load the thumbnail from the image store. Older users that
+     * still carry a Base64 image in their document fall back to decoding it.
+     *
+     * @param userId       The ID of the user owning the image.
+     * @param imageRef     The image reference, or null for users without one.
+     * @param encodedImage The Base64 encoded image of older users, or null.
+     * @param imageView    The view to show the image in.
+     */
+    public void loadProfileImage(String userId, String imageRef, String encodedImage, ImageView imageView) {
+        if (imageRef != null) {
+            loadImageReference(imageRef, ImageStore.VARIANT_THUMBNAIL, imageView);
+        } else {
+            loadEncodedImage(userId, encodedImage, imageView);
+        }
+    }
+
+    /**
+     * Loads a user's profile image into the cache without showing it, so a screen about to
+     * open finds it ready. Views bound to the image while it loads still receive it.
+     *
+     * @param userId       The ID of the user owning the image.
+     * @param imageRef     The image reference, or null for users without one.
+     * @param encodedImage The Base64 encoded image of older users, or null.
+     */
+    public void prefetchProfileImage(String userId, String imageRef, String encodedImage) {
+        if (imageRef != null) {
+            String key = imageRef + ":" + ImageStore.VARIANT_THUMBNAIL;
+            if (reserve(key)) {
+                download(key, imageRef, ImageStore.VARIANT_THUMBNAIL);
+            }
+        } else if (encodedImage != null) {
+            String key = getCacheKey(userId, encodedImage);
+            if (reserve(key)) {
+                decodeInBackground(key, () -> decodeImage(encodedImage));
+            }
+        }
+    }
+
+    /**
+     * Shows one variant of a stored image in an ImageView.
+     *
+     * The bytes are downloaded only on a cache miss and decoded in the background.
+     *
+     * @param imageRef  The image reference stored in the document.
+     * @param variant   The image variant to show.
+     * @param imageView The view to show the image in.
+     */
+    public void loadImageReference(String imageRef, String variant, ImageView imageView) {
+        String key = imageRef + ":" + variant;
+        if (bind(key, imageView)) {
+            download(key, imageRef, variant);
+        }
+    }
+
+    /**
+     * Downloads one variant of a stored image and decodes it in the background.
+     */
+    private void download(String key, String imageRef, String variant) {
+        if (imageStore == null) {
+            imageStore = new ImageStore();
+        }
+        imageStore.download(imageRef, variant)
+                .addOnSuccessListener(bytes -> decodeInBackground(key,
+                        () -> BitmapFactory.decodeByteArray(bytes, 0, bytes.length)))
+                .addOnFailureListener(e -> deliver(key, null));
+    }
+
+    /**
+     * Shows a Base64 encoded user image in an ImageView.
+     *
+     * @param userId       The ID of the user owning the image.
+     * @param encodedImage The Base64 encoded image.
+     * @param imageView    The view to show the image in.
+     */
+    public void loadEncodedImage(String userId, String encodedImage, ImageView imageView) {
+        if (encodedImage == null) {
+            imageView.setTag(null);
+            imageView.setImageDrawable(null);
+            return;
+        }
+        String key = getCacheKey(userId, encodedImage);
+        if (bind(key, imageView)) {
+            decodeInBackground(key, () -> decodeImage(encodedImage));
+        }
+    }
+
+    /**
+     * Binds an ImageView to a cache key.
+     *
+     * A cached bitmap is set immediately. Otherwise the view is cleared to its placeholder
+     * background and queued for the bitmap, which is swapped in later if the view is still
+     * bound to the same key.
+     *
+     * @return True if the caller must start loading the bitmap, false if it is cached or
+     *         already being loaded.
+     */
+    private boolean bind(String key, ImageView imageView) {
+        imageView.setTag(key);
+        Bitmap bitmap = bitmapCache.get(key);
+        if (bitmap != null) {
+            imageView.setImageBitmap(bitmap);
+            return false;
+        }
+        imageView.setImageDrawable(null);
+
+        List<WeakReference<ImageView>> targets = pendingTargets.get(key);
+        if (targets != null) {
+            targets.add(new WeakReference<>(imageView));
+            return false;
+        }
+        targets = new ArrayList<>();
+        targets.add(new WeakReference<>(imageView));
+        pendingTargets.put(key, targets);
+        return true;
+    }
+
+    /**
+     * Marks a cache key as loading without a view waiting for it.
+     *
+     * @return True if the caller must start loading the bitmap, false if it is cached or
+     *         already being loaded.
+     */
+    private boolean reserve(String key) {
+        if (bitmapCache.get(key) != null || pendingTargets.containsKey(key)) {
+            return false;
+        }
+        pendingTargets.put(key, new ArrayList<>());
+        return true;
+    }
+
+    /**
+     * Runs a decode on the image executor and delivers the result on the main thread.
+     */
+    private void decodeInBackground(String key, Callable<Bitmap> decoder) {
+        AppExecutors.imageDecoder().execute(() -> {
+            Bitmap decoded;
+            long startNanos = Metrics.start();
+            Metrics.beginSection("ImageLoader.decode");
+            try {
+                decoded = decoder.call();
+            } catch (Exception e) {
+                decoded = null;
+            } finally {
+                Metrics.endSection();
+            }
+            Metrics.recordMicrosSince(Metrics.IMAGE_DECODE_US, startNanos);
+            Bitmap result = decoded;
+            AppExecutors.mainThread().execute(() -> deliver(key, result));
+        });
+    }
+
+    /**
+     * Drops every cached bitmap.
+     */
+    public void clear() {
+        bitmapCache.evictAll();
+    }
+
+    /**
+     * Caches a decoded bitmap and sets it on every view still waiting for it.
+     */
+    private void deliver(String key, Bitmap bitmap) {
+        List<WeakReference<ImageView>> targets = pendingTargets.remove(key);
+        if (bitmap == null) {
+            return;
+        }
+        bitmapCache.put(key, bitmap);
+        if (targets == null) {
+            return;
+        }
+        for (WeakReference<ImageView> reference : targets) {
+            ImageView imageView = reference.get();
+            if (imageView != null && key.equals(imageView.getTag())) {
+                imageView.setImageBitmap(bitmap);
+            }
+        }
+    }
+
+    /**
+     * Decodes a Base64 encoded string into a Bitmap.
+     *
+     * @param encodedImage The Base64 encoded string of the image.
+     * @return The decoded Bitmap, or null if the data is not a valid image.
+     */
+    private static Bitmap decodeImage(String encodedImage) {
+        try {
+            byte[] bytes = Base64.decode(encodedImage, Base64.DEFAULT);
+            return BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.signinsignout.utilities;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Looper;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.signinsignout.R;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Utility class holding the shared pieces used to render the app's lists.
+ *
+ * Rows of every list are inflated from one themed application context, so their views hold no
+ * reference to the screen that created them. That lets all lists share one recycled view pool
+ * across screens: reopening a chat reuses the rows of the previous one instead of inflating
+ * them again. View types must therefore be unique across adapters. Must be used from the
+ * main thread.
+ */
+public class ListRendering {
+
+    private static final int MAX_RECYCLED_VIEWS = 12;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static LayoutInflater layoutInflater;
+    private static RecyclerView.RecycledViewPool recycledViewPool;
+
+    private ListRendering() {
+    }
+
+    /**
+     * Returns the inflater every list row is inflated with.
+     *
+     * @param context Any context of the app.
+     * @return The shared inflater, bound to the application context and app theme.
+     */
+    public static LayoutInflater getLayoutInflater(Context context) {
+        if (layoutInflater == null) {
+            layoutInflater = LayoutInflater.from(new ContextThemeWrapper(
+                    context.getApplicationContext(), R.style.Theme_SignInSignOut));
+        }
+        return layoutInflater;
+    }
+
+    /**
+     * Returns the recycled view pool shared by every list.
+     *
+     * @return The shared pool.
+     */
+    public static RecyclerView.RecycledViewPool getRecycledViewPool() {
+        if (recycledViewPool == null) {
+            recycledViewPool = new RecyclerView.RecycledViewPool();
+        }
+        return recycledViewPool;
+    }
+
+    /**
+     * Applies the shared pool and caching settings to a list.
+     *
+     * @param recyclerView      The list to configure.
+     * @param itemViewCacheSize The number of rows kept bound just off screen, so scrolling back
+     *                          does not rebind them.
+     */
+    public static void configure(RecyclerView recyclerView, int itemViewCacheSize) {
+        recyclerView.setHasFixedSize(true);
+        recyclerView.setItemViewCacheSize(itemViewCacheSize);
+        recyclerView.setRecycledViewPool(getRecycledViewPool());
+    }
+
+    /**
+     * Inflates rows of a view type into the shared pool once the main thread is idle, so the
+     * first frames of a list do not pay for inflation.
+     *
+     * The list and adapter are only held weakly, and prewarming stops once the screen is
+     * finishing, so a screen closed before the main thread goes idle is not kept alive.
+     *
+     * @param recyclerView The list the rows are created for.
+     * @param adapter      The adapter creating the rows.
+     * @param viewType     The view type to create.
+     * @param count        The number of rows to have in the pool.
+     */
+    public static void prewarm(RecyclerView recyclerView, RecyclerView.Adapter<?> adapter, int viewType, int count) {
+        RecyclerView.RecycledViewPool pool = getRecycledViewPool();
+        pool.setMaxRecycledViews(viewType, Math.max(count, MAX_RECYCLED_VIEWS));
+        WeakReference<RecyclerView> recyclerViewReference = new WeakReference<>(recyclerView);
+        WeakReference<RecyclerView.Adapter<?>> adapterReference = new WeakReference<>(adapter);
+        Looper.myQueue().addIdleHandler(() -> {
+            RecyclerView list = recyclerViewReference.get();
+            RecyclerView.Adapter<?> listAdapter = adapterReference.get();
+            if (list == null || listAdapter == null || isFinishing(list)
+                    || pool.getRecycledViewCount(viewType) >= count) {
+                return false;
+            }
+            pool.putRecycledView(listAdapter.createViewHolder(list, viewType));
+            return pool.getRecycledViewCount(viewType) < count;
+        });
+    }
+
+    /**
+     * Returns whether the screen showing a list is finishing.
+     *
+     * @param recyclerView The list.
+     * @return True if the list belongs to an activity that is finishing or destroyed.
+     */
+    private static boolean isFinishing(RecyclerView recyclerView) {
+        Context context = recyclerView.getContext();
+        while (context instanceof ContextWrapper && !(context instanceof Activity)) {
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return context instanceof Activity
+                && (((Activity) context).isFinishing() || ((Activity) context).isDestroyed());
+    }
+
+    /**
+     * Derives a stable row ID from a document ID with a 64-bit FNV-1a hash, so IDs stay
+     * distinct for any realistic list size.
+     *
+     * @param documentId The Firestore document ID.
+     * @return The row ID.
+     */
+    public static long getStableId(String documentId) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < documentId.length(); i++) {
+            hash ^= documentId.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
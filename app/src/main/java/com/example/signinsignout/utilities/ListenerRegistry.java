@@ -0,0 +1,97 @@
+package com.example.signinsignout.utilities;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.example.signinsignout.listeners.SnapshotSubscription;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the Firestore listeners of a screen attached only while the screen is visible.
+ *
+ * Registered subscriptions are started when the owner starts and removed when it stops, so
+ * a screen in the back stack does not stream or parse snapshots. They are started again on
+ * the next start; a repository resumes each one from the point it last synced. Everything
+ * is released when the owner is destroyed. Must be used from the main thread.
+ */
+public class ListenerRegistry implements DefaultLifecycleObserver {
+
+    private final Lifecycle lifecycle;
+    private final List<SnapshotSubscription> subscriptions = new ArrayList<>();
+    private final List<ListenerRegistration> registrations = new ArrayList<>();
+
+    /**
+     * Constructor for the ListenerRegistry.
+     *
+     * @param lifecycleOwner The screen the listeners are tied to.
+     */
+    public ListenerRegistry(LifecycleOwner lifecycleOwner) {
+        this.lifecycle = lifecycleOwner.getLifecycle();
+        lifecycle.addObserver(this);
+    }
+
+    /**
+     * Registers a subscription, starting it right away if the owner is already started.
+     *
+     * @param subscription The subscription to keep attached while the owner is started.
+     */
+    public void register(SnapshotSubscription subscription) {
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            return;
+        }
+        subscriptions.add(subscription);
+        if (lifecycle.getCurrentState().isAtLeast(Lifecycle.State.STARTED)) {
+            registrations.add(subscription.start());
+        }
+    }
+
+    /**
+     * Returns the number of listeners currently attached.
+     *
+     * @return The number of active listeners.
+     */
+    public int getActiveCount() {
+        return registrations.size();
+    }
+
+    /**
+     * Starts every registered subscription when the owner becomes visible.
+     *
+     * @param owner The started owner.
+     */
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        for (SnapshotSubscription subscription : subscriptions) {
+            registrations.add(subscription.start());
+        }
+    }
+
+    /**
+     * Removes every attached listener when the owner is no longer visible.
+     *
+     * @param owner The stopped owner.
+     */
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        for (ListenerRegistration registration : registrations) {
+            registration.remove();
+        }
+        registrations.clear();
+    }
+
+    /**
+     * Drops the subscriptions, and with them the screen they reference.
+     *
+     * @param owner The destroyed owner.
+     */
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        subscriptions.clear();
+        lifecycle.removeObserver(this);
+    }
+}
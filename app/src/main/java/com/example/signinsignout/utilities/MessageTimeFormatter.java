@@ -0,0 +1,88 @@
+package com.example.signinsignout.utilities;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Utility class that formats message timestamps for display.
+ *
+ * Each thread gets its own formatter, since SimpleDateFormat is not thread-safe. The displayed
+ * text only changes once a minute, so results are memoized per minute and a conversation
+ * mostly resolves to a handful of cached strings, with the least recently used minutes evicted
+ * first. The cache is rebuilt when the locale or the time zone changes.
+ */
+public class MessageTimeFormatter {
+
+    private static final String PATTERN = "MMM dd, yyyy - hh:mm a";
+    private static final long MINUTE_MS = 60_000L;
+    private static final int MAX_CACHED_MINUTES = 256;
+
+    private static final ThreadLocal<MessageTimeFormatter> FORMATTERS = new ThreadLocal<MessageTimeFormatter>() {
+        @Override
+        protected MessageTimeFormatter initialValue() {
+            return new MessageTimeFormatter(Locale.getDefault(), TimeZone.getDefault());
+        }
+    };
+
+    private final Locale locale;
+    private final TimeZone timeZone;
+    private final SimpleDateFormat dateFormat;
+    private final Map<Long, String> minutes = new LinkedHashMap<Long, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > MAX_CACHED_MINUTES;
+        }
+    };
+    private final Date date = new Date();
+
+    /**
+     * Constructor for the MessageTimeFormatter.
+     *
+     * @param locale   The locale the timestamps are formatted in.
+     * @param timeZone The time zone the timestamps are shown in.
+     */
+    private MessageTimeFormatter(Locale locale, TimeZone timeZone) {
+        this.locale = locale;
+        this.timeZone = timeZone;
+        this.dateFormat = new SimpleDateFormat(PATTERN, locale);
+        this.dateFormat.setTimeZone(timeZone);
+    }
+
+    /**
+     * Formats a timestamp into a human-readable date-time string.
+     *
+     * @param timestamp The time in milliseconds since the epoch.
+     * @return A string representing the formatted date and time (e.g., "MMM dd, yyyy - hh:mm a").
+     */
+    public static String format(long timestamp) {
+        MessageTimeFormatter formatter = FORMATTERS.get();
+        Locale locale = Locale.getDefault();
+        TimeZone timeZone = TimeZone.getDefault();
+        if (!formatter.locale.equals(locale) || !formatter.timeZone.equals(timeZone)) {
+            formatter = new MessageTimeFormatter(locale, timeZone);
+            FORMATTERS.set(formatter);
+        }
+        return formatter.formatMinute(timestamp);
+    }
+
+    /**
+     * Returns the cached text for the timestamp's minute, formatting it on a miss.
+     *
+     * @param timestamp The time in milliseconds since the epoch.
+     * @return The formatted date and time.
+     */
+    private String formatMinute(long timestamp) {
+        Long minute = Math.floorDiv(timestamp, MINUTE_MS);
+        String formatted = minutes.get(minute);
+        if (formatted == null) {
+            date.setTime(timestamp);
+            formatted = dateFormat.format(date);
+            minutes.put(minute, formatted);
+        }
+        return formatted;
+    }
+}
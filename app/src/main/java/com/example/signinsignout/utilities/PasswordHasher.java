@@ -0,0 +1,96 @@
+package com.example.signinsignout.utilities;
+
+import android.util.Base64;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Utility class for salted, deliberately slow password hashes.
+ *
+ * Passwords are hashed with PBKDF2, the slow hash every supported API level provides. The
+ * iteration count is stored next to each hash, so it can be raised for new hashes without
+ * breaking existing ones. Hashing takes a noticeable fraction of a second, so it must run on
+ * AppExecutors.passwordHasher().
+ */
+public class PasswordHasher {
+
+    /** The iteration count used for new hashes. */
+    public static final int ITERATIONS = 120_000;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA1";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private PasswordHasher() {
+    }
+
+    /**
+     * Creates a new random salt.
+     *
+     * @return The salt, Base64 encoded.
+     */
+    public static String newSalt() {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        return Base64.encodeToString(salt, Base64.NO_WRAP);
+    }
+
+    /**
+     * Hashes a password.
+     *
+     * @param password   The password.
+     * @param salt       The Base64 encoded salt.
+     * @param iterations The iteration count.
+     * @return The hash, Base64 encoded.
+     * @throws GeneralSecurityException If PBKDF2 is not available.
+     */
+    public static String hash(String password, String salt, int iterations) throws GeneralSecurityException {
+        byte[] hash = derive(password, Base64.decode(salt, Base64.NO_WRAP), iterations);
+        return Base64.encodeToString(hash, Base64.NO_WRAP);
+    }
+
+    /**
+     * Checks a password against a stored hash, comparing in constant time.
+     *
+     * @param password   The password to check.
+     * @param salt       The stored Base64 encoded salt.
+     * @param iterations The stored iteration count.
+     * @param hash       The stored Base64 encoded hash.
+     * @return True if the password matches.
+     * @throws GeneralSecurityException If PBKDF2 is not available.
+     */
+    public static boolean matches(String password, String salt, int iterations, String hash)
+            throws GeneralSecurityException {
+        byte[] expected = Base64.decode(hash, Base64.NO_WRAP);
+        byte[] actual = derive(password, Base64.decode(salt, Base64.NO_WRAP), iterations);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     * Derives the raw hash of a password.
+     *
+     * @param password   The password.
+     * @param salt       The raw salt.
+     * @param iterations The iteration count.
+     * @return The raw hash.
+     * @throws GeneralSecurityException If PBKDF2 is not available.
+     */
+    static byte[] derive(String password, byte[] salt, int iterations) throws GeneralSecurityException {
+        char[] chars = password.toCharArray();
+        PBEKeySpec keySpec = new PBEKeySpec(chars, salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(keySpec).getEncoded();
+        } finally {
+            keySpec.clearPassword();
+            Arrays.fill(chars, '\0');
+        }
+    }
+}
@@ -3,10 +3,17 @@ package com.example.signinsignout.utilities;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import com.example.signinsignout.models.Session;
+
 /**
  * Utility class for managing shared preferences in the application.
+ *
+ * The signed-in session is read from disk once per process and kept in memory, so screens
+ * can look it up without touching the preferences again.
  */
 public class PreferenceManager {
+    private static volatile Session session;
+
     private final SharedPreferences sharedPrefrences;
 
     /**
@@ -63,9 +70,46 @@ public class PreferenceManager {
     }
 
     /**
-     * Clears all values in the shared preferences.
+     * Returns the signed-in session, loading it from the shared preferences on first use.
+     *
+     * @return The session, or null if no user is signed in.
+     */
+    public Session getSession() {
+        Session current = session;
+        if (current == null && sharedPrefrences.getBoolean(Constants.KEY_IS_SIGNED_IN, false)) {
+            current = new Session(
+                    sharedPrefrences.getString(Constants.KEY_USER_ID, null),
+                    sharedPrefrences.getString(Constants.KEY_FIRST_NAME, null),
+                    sharedPrefrences.getString(Constants.KEY_LAST_NAME, null),
+                    sharedPrefrences.getString(Constants.KEY_IMAGE, null),
+                    sharedPrefrences.getString(Constants.KEY_IMAGE_REF, null));
+            session = current;
+        }
+        return current;
+    }
+
+    /**
+     * Stores a new signed-in session, writing all of its keys in a single commit.
+     *
+     * @param newSession The session of the user who just signed in.
+     */
+    public void putSession(Session newSession) {
+        SharedPreferences.Editor editor = sharedPrefrences.edit();
+        editor.putBoolean(Constants.KEY_IS_SIGNED_IN, true);
+        editor.putString(Constants.KEY_USER_ID, newSession.userId);
+        editor.putString(Constants.KEY_FIRST_NAME, newSession.firstName);
+        editor.putString(Constants.KEY_LAST_NAME, newSession.lastName);
+        editor.putString(Constants.KEY_IMAGE, newSession.image);
+        editor.putString(Constants.KEY_IMAGE_REF, newSession.imageRef);
+        editor.apply();
+        session = newSession;
+    }
+
+    /**
+     * Clears all values in the shared preferences, including the signed-in session.
      */
     public void clear() {
+        session = null;
         SharedPreferences.Editor editor = sharedPrefrences.edit();
         editor.clear();
         editor.apply();
@@ -0,0 +1,132 @@
+package com.example.signinsignout.utilities;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.example.signinsignout.models.Session;
+import com.example.signinsignout.repositories.PresenceRepository;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+/**
+ * Keeps the signed-in user's presence up to date while any screen of the app is visible.
+ *
+ * Screens add the tracker as a lifecycle observer. The user goes online when the first screen
+ * starts and offline a short while after the last one stops, so moving between screens does
+ * not write at all. While online, a heartbeat refreshes the last-seen time once per
+ * HEARTBEAT_MS, which keeps thousands of clients at a steady trickle of single-document
+ * writes. Must be used from the main thread.
+ */
+public class PresenceTracker implements DefaultLifecycleObserver {
+
+    private static final long HEARTBEAT_MS = 60_000;
+    private static final long OFFLINE_DELAY_MS = 5000;
+
+    private static PresenceTracker instance;
+
+    private final PreferenceManager preferenceManager;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable heartbeatRunnable = this::heartbeat;
+    private final Runnable offlineRunnable = this::goOffline;
+
+    private PresenceRepository presenceRepository;
+    private String userId;
+    private int startedScreens;
+    private boolean online;
+
+    /**
+     * Returns the shared presence tracker.
+     *
+     * @param context Any context of the app.
+     * @return The presence tracker.
+     */
+    public static PresenceTracker getInstance(Context context) {
+        if (instance == null) {
+            instance = new PresenceTracker(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Constructor for the PresenceTracker.
+     *
+     * @param context The application context.
+     */
+    private PresenceTracker(Context context) {
+        this.preferenceManager = new PreferenceManager(context);
+    }
+
+    /**
+     * Counts a started screen and goes online if it is the first one.
+     *
+     * @param owner The started screen.
+     */
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        startedScreens++;
+        handler.removeCallbacks(offlineRunnable);
+        if (!online) {
+            heartbeat();
+        }
+    }
+
+    /**
+     * Counts a stopped screen and schedules going offline if no screen is left.
+     *
+     * @param owner The stopped screen.
+     */
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        startedScreens--;
+        if (startedScreens == 0) {
+            handler.postDelayed(offlineRunnable, OFFLINE_DELAY_MS);
+        }
+    }
+
+    /**
+     * Goes offline right away, for example before signing out.
+     */
+    public void goOffline() {
+        handler.removeCallbacks(heartbeatRunnable);
+        handler.removeCallbacks(offlineRunnable);
+        if (online && presenceRepository != null) {
+            presenceRepository.setOnline(false);
+        }
+        online = false;
+    }
+
+    /**
+     * Writes an online heartbeat and schedules the next one.
+     */
+    private void heartbeat() {
+        handler.removeCallbacks(heartbeatRunnable);
+        PresenceRepository repository = getPresenceRepository();
+        if (repository == null) {
+            return;
+        }
+        repository.setOnline(true);
+        online = true;
+        handler.postDelayed(heartbeatRunnable, HEARTBEAT_MS);
+    }
+
+    /**
+     * Returns the presence repository of the signed-in user, recreating it if the user changed.
+     *
+     * @return The repository, or null if no user is signed in.
+     */
+    private PresenceRepository getPresenceRepository() {
+        Session session = preferenceManager.getSession();
+        if (session == null || session.userId == null) {
+            return null;
+        }
+        if (presenceRepository == null || !session.userId.equals(userId)) {
+            userId = session.userId;
+            presenceRepository = new PresenceRepository(FirebaseFirestore.getInstance(), userId);
+        }
+        return presenceRepository;
+    }
+}
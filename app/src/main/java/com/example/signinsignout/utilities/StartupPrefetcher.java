@@ -0,0 +1,55 @@
+package com.example.signinsignout.utilities;
+
+import android.content.Context;
+
+import com.example.signinsignout.database.ConversationStore;
+import com.example.signinsignout.models.Conversation;
+import com.example.signinsignout.models.Session;
+import com.google.firebase.messaging.FirebaseMessaging;
+
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Starts the work the home screen needs before it is created.
+ *
+ * The profile image, the FCM token and the cached recent conversations are loaded in
+ * parallel on their own executors while the home screen inflates. Must be used from the main
+ * thread.
+ */
+public class StartupPrefetcher {
+
+    private static Future<List<Conversation>> recentConversations;
+
+    private StartupPrefetcher() {
+    }
+
+    /**
+     * Starts prefetching for the signed-in user.
+     *
+     * @param context The context used to open the local stores.
+     * @param session The signed-in session.
+     * @param limit   The number of recent conversations the home screen shows.
+     */
+    public static void start(Context context, Session session, int limit) {
+        ImageLoader.getInstance().prefetchProfileImage(session.userId, session.imageRef, session.image);
+        FirebaseMessaging.getInstance().getToken();
+        ConversationStore conversationStore = new ConversationStore(context.getApplicationContext());
+        recentConversations = AppExecutors.diskIO().submit(
+                () -> conversationStore.getRecentConversations(limit));
+    }
+
+    /**
+     * Hands over the prefetched recent conversations, at most once.
+     *
+     * The read runs on AppExecutors.diskIO(), so waiting for it from a later task on the same
+     * executor never blocks.
+     *
+     * @return The pending read of the cached conversations, or null if none was started.
+     */
+    public static Future<List<Conversation>> takeRecentConversations() {
+        Future<List<Conversation>> future = recentConversations;
+        recentConversations = null;
+        return future;
+    }
+}
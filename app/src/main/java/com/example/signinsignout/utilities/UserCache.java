@@ -0,0 +1,139 @@
+package com.example.signinsignout.utilities;
+
+import android.content.Context;
+import android.util.LruCache;
+
+import com.example.signinsignout.database.UserStore;
+import com.example.signinsignout.listeners.UserLoadListener;
+import com.example.signinsignout.models.User;
+import com.example.signinsignout.repositories.UserRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Process-wide cache of users keyed by ID, so screens hand each other a user ID instead of
+ * the whole user.
+ *
+ * Users are resolved from memory first, then from the user store on disk, then from Firestore.
+ * The screen that opens another one has usually just put the user in memory, so the opened
+ * screen gets the very same object, and the ImageLoader finds the bitmap already decoded for
+ * it. Users from the directory are also written to disk; partial users from conversation
+ * summaries stay in memory and never replace a full one.
+ */
+public class UserCache {
+
+    private static final int MAX_USERS = 500;
+
+    private static UserCache instance;
+
+    private final LruCache<String, User> users = new LruCache<>(MAX_USERS);
+    private final UserStore userStore;
+
+    /**
+     * Returns the shared user cache.
+     *
+     * @param context Any context of the app.
+     * @return The user cache.
+     */
+    public static synchronized UserCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new UserCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Constructor for the UserCache.
+     *
+     * @param context The application context.
+     */
+    private UserCache(Context context) {
+        userStore = new UserStore(context);
+    }
+
+    /**
+     * Returns a user held in memory.
+     *
+     * @param userId The user's document ID.
+     * @return The user, or null if it is not in memory.
+     */
+    public User get(String userId) {
+        return users.get(userId);
+    }
+
+    /**
+     * Puts complete users in memory and writes them to disk in the background.
+     *
+     * @param loaded The users read from Firestore.
+     */
+    public void putAll(List<User> loaded) {
+        for (User user : loaded) {
+            users.put(user.id, user);
+        }
+        List<User> copy = new ArrayList<>(loaded);
+        AppExecutors.diskIO().execute(() -> userStore.putUsers(copy));
+    }
+
+    /**
+     * Puts a partial user in memory unless the user is already there.
+     *
+     * @param user The user, with at least an ID and a name.
+     */
+    public void putIfAbsent(User user) {
+        synchronized (users) {
+            if (users.get(user.id) == null) {
+                users.put(user.id, user);
+            }
+        }
+    }
+
+    /**
+     * Drops every user held in memory. The user store is cleared with the rest of the
+     * chat database.
+     */
+    public void clear() {
+        users.evictAll();
+    }
+
+    /**
+     * Resolves a user from memory, disk or Firestore, in that order.
+     *
+     * A user in memory is passed on right away; otherwise the listener is called on the main
+     * thread once the user is found.
+     *
+     * @param userId           The user's document ID.
+     * @param userRepository   The repository used when the user is not stored locally.
+     * @param userLoadListener The listener that receives the user.
+     */
+    public void load(String userId, UserRepository userRepository, UserLoadListener userLoadListener) {
+        User cached = users.get(userId);
+        if (cached != null) {
+            userLoadListener.onUserLoaded(cached);
+            return;
+        }
+        AppExecutors.diskIO().execute(() -> {
+            User stored = userStore.getUser(userId);
+            if (stored != null) {
+                putIfAbsent(stored);
+                User user = users.get(userId);
+                AppExecutors.mainThread().execute(() -> userLoadListener.onUserLoaded(
+                        user != null ? user : stored));
+                return;
+            }
+            userRepository.getUser(userId, new UserLoadListener() {
+                @Override
+                public void onUserLoaded(User user) {
+                    putAll(Collections.singletonList(user));
+                    userLoadListener.onUserLoaded(user);
+                }
+
+                @Override
+                public void onUserError(Exception exception) {
+                    userLoadListener.onUserError(exception);
+                }
+            });
+        });
+    }
+}
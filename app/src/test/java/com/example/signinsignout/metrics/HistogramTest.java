@@ -0,0 +1,78 @@
+package com.example.signinsignout.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for the power-of-two bucketing and percentile estimates of Histogram.
+ */
+public class HistogramTest {
+    @Test
+    public void emptySnapshot_isAllZero() {
+        Histogram.Snapshot snapshot = new Histogram().snapshot();
+        assertEquals(0, snapshot.count);
+        assertEquals(0, snapshot.sum);
+        assertEquals(0, snapshot.min);
+        assertEquals(0, snapshot.max);
+        assertEquals(0, snapshot.p50);
+        assertEquals(0, snapshot.p99);
+    }
+
+    @Test
+    public void snapshot_tracksCountSumMinAndMax() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.count);
+        assertEquals(5050, snapshot.sum);
+        assertEquals(1, snapshot.min);
+        assertEquals(100, snapshot.max);
+    }
+
+    @Test
+    public void percentiles_areBucketUpperBoundsCappedAtMax() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(63, snapshot.p50);
+        assertEquals(100, snapshot.p95);
+        assertEquals(100, snapshot.p99);
+    }
+
+    @Test
+    public void percentiles_stayWithinAFactorOfTwo() {
+        Histogram histogram = new Histogram();
+        for (int i = 0; i < 1000; i++) {
+            histogram.record(1000);
+        }
+        histogram.record(1_000_000);
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertTrue(snapshot.p50 >= 1000 && snapshot.p50 < 2000);
+        assertTrue(snapshot.p99 >= 1000 && snapshot.p99 < 2000);
+        assertEquals(1_000_000, snapshot.max);
+    }
+
+    @Test
+    public void negativeValues_areRecordedAsZero() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        histogram.record(0);
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.count);
+        assertEquals(0, snapshot.min);
+        assertEquals(0, snapshot.p99);
+    }
+
+    @Test
+    public void largestValues_fallInTheLastBucket() {
+        Histogram histogram = new Histogram();
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.snapshot().p50);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.signinsignout.models;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for the ordering, lookup and text storage of MessageBuffer.
+ */
+public class MessageBufferTest {
+
+    private static ChatMessage message(String id, long timestamp, String text) {
+        ChatMessage chatMessage = new ChatMessage();
+        chatMessage.id = id;
+        chatMessage.senderId = "alice";
+        chatMessage.receiverID = "bob";
+        chatMessage.message = text;
+        chatMessage.timestamp = timestamp;
+        chatMessage.status = ChatMessage.STATUS_SENT;
+        return chatMessage;
+    }
+
+    private static void add(MessageBuffer buffer, ChatMessage chatMessage) {
+        buffer.insert(buffer.insertionPoint(chatMessage), chatMessage);
+    }
+
+    @Test
+    public void insertionPoint_keepsMessagesOrderedByTimestampThenId() {
+        MessageBuffer buffer = new MessageBuffer();
+        add(buffer, message("b", 20, "second"));
+        add(buffer, message("c", 30, "third"));
+        add(buffer, message("a", 10, "first"));
+        add(buffer, message("a", 20, "tie"));
+        assertEquals(4, buffer.size());
+        assertEquals("a", buffer.getId(0));
+        assertEquals("a", buffer.getId(1));
+        assertEquals(20, buffer.getTimestamp(1));
+        assertEquals("b", buffer.getId(2));
+        assertEquals("c", buffer.getId(3));
+    }
+
+    @Test
+    public void get_returnsTheStoredFields() {
+        MessageBuffer buffer = new MessageBuffer();
+        add(buffer, message("m1", 42, "hello"));
+        ChatMessage chatMessage = buffer.get(0);
+        assertEquals("m1", chatMessage.id);
+        assertEquals("alice", chatMessage.senderId);
+        assertEquals("bob", chatMessage.receiverID);
+        assertEquals("hello", chatMessage.message);
+        assertEquals(42, chatMessage.timestamp);
+        assertEquals(ChatMessage.STATUS_SENT, chatMessage.status);
+        assertEquals("hello", new String(buffer.getText(), buffer.getTextOffset(0), buffer.getTextLength(0)));
+    }
+
+    @Test
+    public void indexOf_findsStoredMessagesOnly() {
+        MessageBuffer buffer = new MessageBuffer();
+        add(buffer, message("a", 10, "x"));
+        add(buffer, message("b", 20, "y"));
+        assertEquals(1, buffer.indexOf(message("b", 20, null)));
+        assertEquals(-1, buffer.indexOf(message("b", 21, null)));
+        assertEquals(1, buffer.indexOfId("b"));
+        assertEquals(-1, buffer.indexOfId("z"));
+    }
+
+    @Test
+    public void indexAfter_returnsTheFirstLaterMessage() {
+        MessageBuffer buffer = new MessageBuffer();
+        add(buffer, message("a", 10, "x"));
+        add(buffer, message("b", 20, "y"));
+        add(buffer, message("c", 20, "z"));
+        add(buffer, message("d", 30, "w"));
+        assertEquals(0, buffer.indexAfter(5));
+        assertEquals(1, buffer.indexAfter(10));
+        assertEquals(3, buffer.indexAfter(20));
+        assertEquals(4, buffer.indexAfter(30));
+    }
+
+    @Test
+    public void insertAll_growsPastTheInitialCapacity() {
+        MessageBuffer buffer = new MessageBuffer();
+        List<ChatMessage> page = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            page.add(message(String.format("%03d", i), i, "body " + i));
+        }
+        buffer.insertAll(0, page);
+        assertEquals(100, buffer.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("body " + i, buffer.get(i).message);
+        }
+    }
+
+    @Test
+    public void set_replacesTheMessageBody() {
+        MessageBuffer buffer = new MessageBuffer();
+        add(buffer, message("a", 10, "draft"));
+        ChatMessage edited = message("a", 10, "final");
+        edited.status = ChatMessage.STATUS_PENDING;
+        buffer.set(0, edited);
+        assertEquals("final", buffer.get(0).message);
+        assertEquals(ChatMessage.STATUS_PENDING, buffer.getStatus(0));
+    }
+
+    @Test
+    public void removeRange_shiftsTheFollowingMessages() {
+        MessageBuffer buffer = new MessageBuffer();
+        buffer.insertAll(0, Arrays.asList(message("a", 1, "a"), message("b", 2, "b"),
+                message("c", 3, "c"), message("d", 4, "d")));
+        buffer.removeRange(1, 3);
+        assertEquals(2, buffer.size());
+        assertEquals("a", buffer.get(0).message);
+        assertEquals("d", buffer.get(1).message);
+        buffer.remove(0);
+        assertEquals("d", buffer.getId(0));
+    }
+
+    @Test
+    public void compaction_keepsTheLiveBodies() {
+        MessageBuffer buffer = new MessageBuffer();
+        char[] filler = new char[500];
+        Arrays.fill(filler, 'x');
+        String body = new String(filler);
+        List<ChatMessage> page = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            page.add(message(String.format("%03d", i), i, i + body));
+        }
+        buffer.insertAll(0, page);
+        char[] before = buffer.getText();
+        buffer.removeRange(0, 35);
+        assertTrue(buffer.getText() != before);
+        assertEquals(5, buffer.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals((35 + i) + body, buffer.get(i).message);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void tooManyParticipants_areRejected() {
+        MessageBuffer buffer = new MessageBuffer();
+        for (int i = 0; i <= 256; i++) {
+            ChatMessage chatMessage = message("m" + i, i, "x");
+            chatMessage.senderId = "sender" + i;
+            add(buffer, chatMessage);
+        }
+    }
+}
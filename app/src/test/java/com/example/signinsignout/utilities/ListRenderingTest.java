@@ -0,0 +1,35 @@
+package com.example.signinsignout.utilities;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Local unit tests for the stable row IDs of ListRendering.
+ */
+public class ListRenderingTest {
+    @Test
+    public void getStableId_isFnv1a64() {
+        assertEquals(0xcbf29ce484222325L, ListRendering.getStableId(""));
+        assertEquals(0xaf63dc4c8601ec8cL, ListRendering.getStableId("a"));
+        assertEquals(0x85944171f73967e8L, ListRendering.getStableId("foobar"));
+    }
+
+    @Test
+    public void getStableId_isStableAcrossCalls() {
+        assertEquals(ListRendering.getStableId("3WqXc9bH2kLmN0pR7sTu"),
+                ListRendering.getStableId(new String("3WqXc9bH2kLmN0pR7sTu")));
+    }
+
+    @Test
+    public void getStableId_isDistinctForDocumentIds() {
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(ListRendering.getStableId("doc" + i));
+        }
+        assertEquals(100_000, ids.size());
+    }
+}
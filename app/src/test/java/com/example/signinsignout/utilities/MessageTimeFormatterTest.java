@@ -0,0 +1,64 @@
+package com.example.signinsignout.utilities;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Local unit tests for the display format and the per-minute cache of MessageTimeFormatter.
+ */
+public class MessageTimeFormatterTest {
+
+    /** 2024-03-05 15:04:00 UTC. */
+    private static final long TIMESTAMP = 1_709_651_040_000L;
+
+    private Locale locale;
+    private TimeZone timeZone;
+
+    @Before
+    public void setUp() {
+        locale = Locale.getDefault();
+        timeZone = TimeZone.getDefault();
+        Locale.setDefault(Locale.US);
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(locale);
+        TimeZone.setDefault(timeZone);
+    }
+
+    @Test
+    public void format_usesTheMessagePattern() {
+        assertEquals("Mar 05, 2024 - 03:04 PM", MessageTimeFormatter.format(TIMESTAMP));
+    }
+
+    @Test
+    public void format_reusesTheTextWithinAMinute() {
+        String formatted = MessageTimeFormatter.format(TIMESTAMP);
+        assertSame(formatted, MessageTimeFormatter.format(TIMESTAMP + 59_999));
+        assertNotEquals(formatted, MessageTimeFormatter.format(TIMESTAMP + 60_000));
+    }
+
+    @Test
+    public void format_followsLocaleChanges() {
+        String english = MessageTimeFormatter.format(TIMESTAMP);
+        Locale.setDefault(Locale.GERMANY);
+        assertNotEquals(english, MessageTimeFormatter.format(TIMESTAMP));
+    }
+
+    @Test
+    public void format_followsTimeZoneChanges() {
+        MessageTimeFormatter.format(TIMESTAMP);
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
+        assertEquals("Mar 05, 2024 - 04:04 PM", MessageTimeFormatter.format(TIMESTAMP));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.signinsignout.utilities;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Local unit tests for the PBKDF2 derivation behind PasswordHasher.
+ */
+public class PasswordHasherTest {
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] hex(String text) {
+        byte[] result = new byte[text.length() / 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (byte) Integer.parseInt(text.substring(i * 2, i * 2 + 2), 16);
+        }
+        return result;
+    }
+
+    @Test
+    public void derive_matchesTheRfc6070Vectors() throws Exception {
+        byte[] oneIteration = PasswordHasher.derive("password", bytes("salt"), 1);
+        assertArrayEquals(hex("0c60c80f961f0e71f3a9b524af6012062fe037a6"),
+                Arrays.copyOf(oneIteration, 20));
+        byte[] manyIterations = PasswordHasher.derive("password", bytes("salt"), 4096);
+        assertArrayEquals(hex("4b007901b765489abead49d926f721d065a429c1"),
+                Arrays.copyOf(manyIterations, 20));
+    }
+
+    @Test
+    public void derive_returns256Bits() throws Exception {
+        assertEquals(32, PasswordHasher.derive("password", bytes("salt"), 1).length);
+    }
+
+    @Test
+    public void derive_isDeterministic() throws Exception {
+        assertArrayEquals(PasswordHasher.derive("secret", bytes("pepper"), 10),
+                PasswordHasher.derive("secret", bytes("pepper"), 10));
+    }
+
+    @Test
+    public void derive_dependsOnPasswordSaltAndIterations() throws Exception {
+        byte[] hash = PasswordHasher.derive("secret", bytes("pepper"), 10);
+        assertFalse(Arrays.equals(hash, PasswordHasher.derive("Secret", bytes("pepper"), 10)));
+        assertFalse(Arrays.equals(hash, PasswordHasher.derive("secret", bytes("Pepper"), 10)));
+        assertFalse(Arrays.equals(hash, PasswordHasher.derive("secret", bytes("pepper"), 11)));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.signinsignout.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import kotlin.Unit;
+
+/**
+ * Generates the baseline profile bundled into the app.
+ *
+ * Run with ./gradlew :app:generateBaselineProfile on a device with API 33 or later, or a
+ * rooted one with API 28 or later. The profile covers startup, the user directory and a chat.
+ */
+public class BaselineProfileGenerator {
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    private static final int MAX_ITERATIONS = 15;
+    private static final int STABLE_ITERATIONS = 3;
+
+    /**
+     * Records the classes and methods used by the critical user journeys.
+     */
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(
+                Journeys.PACKAGE_NAME,
+                MAX_ITERATIONS,
+                STABLE_ITERATIONS,
+                null,
+                true,
+                false,
+                className -> true,
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    Journeys.signInIfNeeded(scope);
+                    Journeys.openUserList(scope);
+                    Journeys.scrollUsers(scope);
+                    scope.getDevice().pressBack();
+                    Journeys.openFirstConversation(scope);
+                    Journeys.scrollChat(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
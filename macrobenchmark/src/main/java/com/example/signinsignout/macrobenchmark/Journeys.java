@@ -0,0 +1,127 @@
+package com.example.signinsignout.macrobenchmark;
+
+import android.os.Bundle;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import java.util.regex.Pattern;
+
+/**
+ * User journeys shared by the benchmarks and the baseline profile generator.
+ *
+ * The journeys run against a real backend account passed as instrumentation arguments:
+ * -Pandroid.testInstrumentationRunnerArguments.benchmarkEmail=... and
+ * -Pandroid.testInstrumentationRunnerArguments.benchmarkPassword=...
+ * The most recent conversation of that account is expected to hold about 5,000 messages.
+ */
+public class Journeys {
+
+    /** The package of the app under test. */
+    public static final String PACKAGE_NAME = "com.example.signinsignout";
+
+    private static final String ARGUMENT_EMAIL = "benchmarkEmail";
+    private static final String ARGUMENT_PASSWORD = "benchmarkPassword";
+    private static final long TIMEOUT_MS = 10_000;
+    private static final int FLINGS = 5;
+
+    private Journeys() {
+    }
+
+    /**
+     * Waits for the first screen and signs in through the sign-in screen if it is shown.
+     *
+     * @param scope The benchmark scope, with the app already started.
+     */
+    public static void signInIfNeeded(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        device.wait(Until.hasObject(By.res(Pattern.compile(
+                PACKAGE_NAME + ":id/(conversationsRecyclerView|inputEmail)"))), TIMEOUT_MS);
+        UiObject2 inputEmail = device.findObject(By.res(PACKAGE_NAME, "inputEmail"));
+        if (inputEmail == null) {
+            return;
+        }
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        String email = arguments.getString(ARGUMENT_EMAIL);
+        String password = arguments.getString(ARGUMENT_PASSWORD);
+        if (email == null || password == null) {
+            throw new IllegalStateException("Pass the " + ARGUMENT_EMAIL + " and " + ARGUMENT_PASSWORD
+                    + " instrumentation arguments of the benchmark account");
+        }
+        inputEmail.setText(email);
+        device.findObject(By.res(PACKAGE_NAME, "Password")).setText(password);
+        device.findObject(By.res(PACKAGE_NAME, "buttonSignIn")).click();
+        device.wait(Until.hasObject(By.res(PACKAGE_NAME, "conversationsRecyclerView")), TIMEOUT_MS);
+    }
+
+    /**
+     * Opens the most recent conversation from the home screen and waits for its messages.
+     *
+     * @param scope The benchmark scope, on the home screen.
+     */
+    public static void openFirstConversation(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        UiObject2 conversations = device.wait(Until.findObject(
+                By.res(PACKAGE_NAME, "conversationsRecyclerView").hasChild(By.clickable(true))), TIMEOUT_MS);
+        conversations.getChildren().get(0).click();
+        device.wait(Until.hasObject(By.res(PACKAGE_NAME, "chatRecyclerView").hasChild(By.depth(1))), TIMEOUT_MS);
+        device.waitForIdle();
+    }
+
+    /**
+     * Flings through the chat history, which pages older messages in, and back down.
+     *
+     * @param scope The benchmark scope, on the chat screen.
+     */
+    public static void scrollChat(MacrobenchmarkScope scope) {
+        fling(scope, "chatRecyclerView", Direction.UP, Direction.DOWN);
+    }
+
+    /**
+     * Opens the user directory from the home screen and waits for its first page.
+     *
+     * @param scope The benchmark scope, on the home screen.
+     */
+    public static void openUserList(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        device.findObject(By.res(PACKAGE_NAME, "fabNewChat")).click();
+        device.wait(Until.hasObject(By.res(PACKAGE_NAME, "usersRecyclerView").hasChild(By.depth(1))), TIMEOUT_MS);
+        device.waitForIdle();
+    }
+
+    /**
+     * Flings down the user directory, which pages more users in, and back up.
+     *
+     * @param scope The benchmark scope, on the user directory.
+     */
+    public static void scrollUsers(MacrobenchmarkScope scope) {
+        fling(scope, "usersRecyclerView", Direction.DOWN, Direction.UP);
+    }
+
+    /**
+     * Flings a list several times one way, then the other way.
+     *
+     * @param scope  The benchmark scope.
+     * @param listId The resource name of the list.
+     * @param first  The direction flung first.
+     * @param second The direction flung back.
+     */
+    private static void fling(MacrobenchmarkScope scope, String listId, Direction first, Direction second) {
+        UiDevice device = scope.getDevice();
+        UiObject2 list = device.findObject(By.res(PACKAGE_NAME, listId));
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+        for (int i = 0; i < FLINGS; i++) {
+            list.fling(first);
+            device.waitForIdle();
+        }
+        for (int i = 0; i < FLINGS; i++) {
+            list.fling(second);
+            device.waitForIdle();
+        }
+    }
+}
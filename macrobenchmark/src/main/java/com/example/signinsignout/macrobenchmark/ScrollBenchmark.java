@@ -0,0 +1,75 @@
+package com.example.signinsignout.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Measures frame timing of the two long lists: opening and flinging through a chat of about
+ * 5,000 messages, and flinging through the user directory.
+ *
+ * Every iteration starts from a fresh process on the home screen, so list views, images and
+ * pages are not carried over between iterations.
+ */
+public class ScrollBenchmark {
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private static final int ITERATIONS = 5;
+
+    /**
+     * Measures opening the most recent conversation and flinging through its history.
+     */
+    @Test
+    public void openAndScrollChat() {
+        benchmarkRule.measureRepeated(
+                Journeys.PACKAGE_NAME,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.Partial(BaselineProfileMode.Require),
+                null,
+                ITERATIONS,
+                scope -> {
+                    scope.killProcess();
+                    scope.startActivityAndWait();
+                    Journeys.signInIfNeeded(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.openFirstConversation(scope);
+                    Journeys.scrollChat(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+
+    /**
+     * Measures opening the user directory and flinging through its pages.
+     */
+    @Test
+    public void scrollUserList() {
+        benchmarkRule.measureRepeated(
+                Journeys.PACKAGE_NAME,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.Partial(BaselineProfileMode.Require),
+                null,
+                ITERATIONS,
+                scope -> {
+                    scope.killProcess();
+                    scope.startActivityAndWait();
+                    Journeys.signInIfNeeded(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.openUserList(scope);
+                    Journeys.scrollUsers(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
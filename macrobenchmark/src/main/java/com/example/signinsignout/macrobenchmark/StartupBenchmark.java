@@ -0,0 +1,84 @@
+package com.example.signinsignout.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * Measures cold, warm and hot startup of a signed-in user, without any ahead-of-time
+ * compilation and with the bundled baseline profile, so the gain of the profile shows.
+ */
+@RunWith(Parameterized.class)
+public class StartupBenchmark {
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private static final int ITERATIONS = 10;
+
+    private final StartupMode startupMode;
+    private final CompilationMode compilationMode;
+
+    /**
+     * Constructor for the StartupBenchmark.
+     *
+     * @param startupMode     The kind of startup to measure.
+     * @param compilationMode How the app is compiled before measuring.
+     */
+    public StartupBenchmark(StartupMode startupMode, CompilationMode compilationMode) {
+        this.startupMode = startupMode;
+        this.compilationMode = compilationMode;
+    }
+
+    /**
+     * Provides every combination of startup and compilation mode to measure.
+     *
+     * @return The combinations.
+     */
+    @Parameterized.Parameters(name = "{0},{1}")
+    public static Collection<Object[]> modes() {
+        List<Object[]> modes = new ArrayList<>();
+        for (StartupMode startupMode : StartupMode.values()) {
+            modes.add(new Object[]{startupMode, new CompilationMode.None()});
+            modes.add(new Object[]{startupMode, new CompilationMode.Partial(BaselineProfileMode.Require)});
+        }
+        return modes;
+    }
+
+    /**
+     * Measures the time until the home screen is fully drawn. The account is signed in once
+     * before measuring, so every iteration takes the launcher's signed-in route.
+     */
+    @Test
+    public void startup() {
+        benchmarkRule.measureRepeated(
+                Journeys.PACKAGE_NAME,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                startupMode,
+                ITERATIONS,
+                scope -> {
+                    scope.startActivityAndWait();
+                    Journeys.signInIfNeeded(scope);
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.signinsignout.microbenchmark;
+
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.signinsignout.R;
+import com.example.signinsignout.adapters.ChatAdapter;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Measures binding chat rows across conversations of different sizes.
+ *
+ * Binding runs on the main thread, since the adapters hand images to ImageLoader there.
+ */
+@RunWith(Parameterized.class)
+public class AdapterBindBenchmark {
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final int size;
+    private RecyclerView parent;
+
+    /**
+     * Constructor for the AdapterBindBenchmark.
+     *
+     * @param size The number of messages in the conversation.
+     */
+    public AdapterBindBenchmark(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Provides the conversation sizes to measure.
+     *
+     * @return The sizes.
+     */
+    @Parameterized.Parameters(name = "size={0}")
+    public static Collection<Object[]> sizes() {
+        return Arrays.asList(new Object[][]{{1_000}, {10_000}, {100_000}});
+    }
+
+    /**
+     * Creates the RecyclerView the rows are inflated into.
+     */
+    @Before
+    public void setUp() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Context context = new ContextThemeWrapper(
+                    InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                    R.style.Theme_SignInSignOut);
+            parent = new RecyclerView(context);
+            parent.setLayoutManager(new LinearLayoutManager(context));
+        });
+    }
+
+    /**
+     * Measures binding chat rows across the whole conversation, reusing one holder per type.
+     */
+    @Test
+    public void bindChatMessages() {
+        ChatAdapter chatAdapter = new ChatAdapter(BenchmarkData.user(0), BenchmarkData.SENDER_ID);
+        chatAdapter.addMessages(BenchmarkData.orderedMessages(size));
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            RecyclerView.ViewHolder sent = chatAdapter.createViewHolder(parent, ChatAdapter.VIEW_TYPE_SENT);
+            RecyclerView.ViewHolder received = chatAdapter.createViewHolder(parent, ChatAdapter.VIEW_TYPE_RECEIVED);
+            int position = 0;
+
+            final BenchmarkState state = benchmarkRule.getState();
+            while (state.keepRunning()) {
+                int viewType = chatAdapter.getItemViewType(position);
+                chatAdapter.bindViewHolder(viewType == ChatAdapter.VIEW_TYPE_SENT ? sent : received, position);
+                position = (position + 1) % size;
+            }
+        });
+    }
+}
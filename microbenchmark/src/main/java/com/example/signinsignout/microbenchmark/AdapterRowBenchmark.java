@@ -0,0 +1,92 @@
+package com.example.signinsignout.microbenchmark;
+
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.signinsignout.R;
+import com.example.signinsignout.adapters.ChatAdapter;
+import com.example.signinsignout.adapters.UsersAdapter;
+import com.example.signinsignout.models.User;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures inflating list rows and binding user rows, which do not depend on the size of a
+ * conversation.
+ *
+ * Binding runs on the main thread, since the adapters hand images to ImageLoader there.
+ */
+public class AdapterRowBenchmark {
+    private static final int USER_COUNT = 100;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private RecyclerView parent;
+
+    /**
+     * Creates the RecyclerView the rows are inflated into.
+     */
+    @Before
+    public void setUp() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Context context = new ContextThemeWrapper(
+                    InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                    R.style.Theme_SignInSignOut);
+            parent = new RecyclerView(context);
+            parent.setLayoutManager(new LinearLayoutManager(context));
+        });
+    }
+
+    /**
+     * Measures inflating a chat row, the cost paid whenever the pool has no spare holder.
+     */
+    @Test
+    public void createChatMessageHolder() {
+        ChatAdapter chatAdapter = new ChatAdapter(BenchmarkData.user(0), BenchmarkData.SENDER_ID);
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            final BenchmarkState state = benchmarkRule.getState();
+            while (state.keepRunning()) {
+                chatAdapter.createViewHolder(parent, ChatAdapter.VIEW_TYPE_SENT);
+            }
+        });
+    }
+
+    /**
+     * Measures binding user rows, including the profile picture lookup.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void bindUsers() {
+        List<User> users = new ArrayList<>(USER_COUNT);
+        for (int i = 0; i < USER_COUNT; i++) {
+            users.add(BenchmarkData.user(i));
+        }
+        RecyclerView.Adapter<RecyclerView.ViewHolder> usersAdapter =
+                (RecyclerView.Adapter<RecyclerView.ViewHolder>) (RecyclerView.Adapter<?>) new UsersAdapter(users, user -> {
+                });
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            RecyclerView.ViewHolder holder = usersAdapter.createViewHolder(parent, UsersAdapter.VIEW_TYPE_USER);
+            int position = 0;
+
+            final BenchmarkState state = benchmarkRule.getState();
+            while (state.keepRunning()) {
+                usersAdapter.bindViewHolder(holder, position);
+                position = (position + 1) % USER_COUNT;
+            }
+        });
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.signinsignout.microbenchmark;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.util.Base64;
+
+import com.example.signinsignout.models.ChatMessage;
+import com.example.signinsignout.models.User;
+import com.example.signinsignout.utilities.Constants;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds the synthetic conversations the benchmarks run against.
+ *
+ * Every generator is seeded, so runs on different builds measure the same input.
+ */
+final class BenchmarkData {
+    static final String SENDER_ID = "sender";
+    static final String RECEIVER_ID = "receiver";
+
+    private static final long BASE_TIME = 1_700_000_000_000L;
+    private static final long MESSAGE_INTERVAL_MS = 1000L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Creates a conversation ordered by timestamp, alternating between both participants.
+     *
+     * @param count The number of messages to create.
+     * @return The messages, oldest first.
+     */
+    static List<ChatMessage> orderedMessages(int count) {
+        List<ChatMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(message(i, BASE_TIME + i * MESSAGE_INTERVAL_MS));
+        }
+        return messages;
+    }
+
+    /**
+     * Creates the same conversation as orderedMessages, shuffled.
+     *
+     * @param count The number of messages to create.
+     * @return The messages in random order.
+     */
+    static List<ChatMessage> shuffledMessages(int count) {
+        List<ChatMessage> messages = orderedMessages(count);
+        Collections.shuffle(messages, new Random(count));
+        return messages;
+    }
+
+    /**
+     * Creates a single message.
+     *
+     * @param index     The index used for the message ID and body.
+     * @param timestamp The message time in milliseconds.
+     * @return The message.
+     */
+    static ChatMessage message(int index, long timestamp) {
+        ChatMessage chatMessage = new ChatMessage();
+        chatMessage.id = "message" + index;
+        chatMessage.senderId = index % 2 == 0 ? SENDER_ID : RECEIVER_ID;
+        chatMessage.receiverID = index % 2 == 0 ? RECEIVER_ID : SENDER_ID;
+        chatMessage.message = "Message number " + index + " in the benchmark conversation";
+        chatMessage.timestamp = timestamp;
+        return chatMessage;
+    }
+
+    /**
+     * Creates a chat data payload as sent by the push backend.
+     *
+     * @param index The index used for the message ID and body.
+     * @return The payload.
+     */
+    static Map<String, String> payload(int index) {
+        Map<String, String> data = new HashMap<>();
+        data.put(Constants.KEY_MESSAGE_ID, "message" + index);
+        data.put(Constants.KEY_CONVERSATION_ID, RECEIVER_ID + "_" + SENDER_ID);
+        data.put(Constants.KEY_SENDER_ID, RECEIVER_ID);
+        data.put(Constants.KEY_RECEIVER_ID, SENDER_ID);
+        data.put(Constants.KEY_MESSAGE, "Message number " + index + " in the benchmark conversation");
+        data.put(Constants.KEY_TIMESTAMP, String.valueOf(BASE_TIME + index * MESSAGE_INTERVAL_MS));
+        data.put(Constants.KEY_FIRST_NAME, "Receiver");
+        return data;
+    }
+
+    /**
+     * Creates a user with a Base64 profile picture of the size sign-up produces.
+     *
+     * @param index The index used for the user ID and name.
+     * @return The user.
+     */
+    static User user(int index) {
+        User user = new User();
+        user.id = "user" + index;
+        user.fname = "User";
+        user.lname = String.valueOf(index);
+        user.name = user.fname + " " + user.lname;
+        user.email = "user" + index + "@example.com";
+        user.image = encodedImage(150);
+        return user;
+    }
+
+    /**
+     * Encodes a solid square bitmap the same way sign-up encodes profile pictures.
+     *
+     * @param size The width and height of the bitmap.
+     * @return The Base64 encoded JPEG.
+     */
+    static String encodedImage(int size) {
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(Color.rgb(30, 120, 200));
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, 50, byteArrayOutputStream);
+        bitmap.recycle();
+        return Base64.encodeToString(byteArrayOutputStream.toByteArray(), Base64.DEFAULT);
+    }
+}
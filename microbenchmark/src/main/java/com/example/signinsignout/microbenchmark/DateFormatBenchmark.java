@@ -0,0 +1,51 @@
+package com.example.signinsignout.microbenchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.signinsignout.utilities.MessageTimeFormatter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Measures formatting message timestamps for display.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DateFormatBenchmark {
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    /**
+     * Measures the previous formatting, which built a formatter per message.
+     */
+    @Test
+    public void formatterPerMessage() {
+        Date date = new Date(1_700_000_000_000L);
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            new SimpleDateFormat("MMM dd, yyyy - hh:mm a", Locale.getDefault()).format(date);
+        }
+    }
+
+    /**
+     * Measures the cached formatter across a conversation with one message per second.
+     */
+    @Test
+    public void cachedFormatter() {
+        long timestamp = 1_700_000_000_000L;
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            MessageTimeFormatter.format(timestamp);
+            timestamp += 1000L;
+        }
+    }
+}
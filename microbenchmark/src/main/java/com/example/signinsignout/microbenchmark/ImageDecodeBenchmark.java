@@ -0,0 +1,39 @@
+package com.example.signinsignout.microbenchmark;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Base64;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures decoding the Base64 profile pictures stored on user documents.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImageDecodeBenchmark {
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    /**
+     * Measures the decode done by ImageLoader on a cache miss.
+     */
+    @Test
+    public void decodeProfileImage() {
+        String encodedImage = BenchmarkData.encodedImage(150);
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            byte[] bytes = Base64.decode(encodedImage, Base64.DEFAULT);
+            Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
+            state.pauseTiming();
+            bitmap.recycle();
+            state.resumeTiming();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.signinsignout.microbenchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+
+import com.example.signinsignout.adapters.ChatAdapter;
+import com.example.signinsignout.models.ChatMessage;
+import com.example.signinsignout.models.User;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measures how the chat list absorbs incoming messages at different conversation sizes.
+ *
+ * The sortPerSnapshot case keeps the previous strategy of appending and re-sorting the
+ * whole list, so the ordered insertion in ChatAdapter can be compared against it.
+ */
+@RunWith(Parameterized.class)
+public class MessageIngestBenchmark {
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final int size;
+    private List<ChatMessage> ordered;
+    private List<ChatMessage> shuffled;
+
+    /**
+     * Constructor for the MessageIngestBenchmark.
+     *
+     * @param size The number of messages in the conversation.
+     */
+    public MessageIngestBenchmark(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Provides the conversation sizes to measure.
+     *
+     * @return The sizes.
+     */
+    @Parameterized.Parameters(name = "size={0}")
+    public static Collection<Object[]> sizes() {
+        return Arrays.asList(new Object[][]{{1_000}, {10_000}, {100_000}});
+    }
+
+    /**
+     * Generates the conversation before each benchmark.
+     */
+    @Before
+    public void setUp() {
+        ordered = BenchmarkData.orderedMessages(size);
+        shuffled = BenchmarkData.shuffledMessages(size);
+    }
+
+    /**
+     * Measures loading a whole ordered conversation, as a history page arrives.
+     */
+    @Test
+    public void appendOrdered() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            ChatAdapter chatAdapter = new ChatAdapter(new User(), BenchmarkData.SENDER_ID);
+            state.resumeTiming();
+            chatAdapter.addMessages(ordered);
+        }
+    }
+
+    /**
+     * Measures loading a whole conversation delivered out of order.
+     */
+    @Test
+    public void insertShuffled() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            ChatAdapter chatAdapter = new ChatAdapter(new User(), BenchmarkData.SENDER_ID);
+            state.resumeTiming();
+            chatAdapter.addMessages(shuffled);
+        }
+    }
+
+    /**
+     * Measures a single late message landing in the middle of a loaded conversation.
+     */
+    @Test
+    public void insertSingleIntoMiddle() {
+        ChatAdapter chatAdapter = new ChatAdapter(new User(), BenchmarkData.SENDER_ID);
+        chatAdapter.addMessages(ordered);
+        ChatMessage late = BenchmarkData.message(size, ordered.get(size / 2).timestamp + 1);
+        List<ChatMessage> added = Collections.singletonList(late);
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            chatAdapter.addMessages(added);
+            state.pauseTiming();
+            chatAdapter.removeMessage(late);
+            state.resumeTiming();
+        }
+    }
+
+    /**
+     * Measures the previous strategy for a single late message: append, then sort everything.
+     */
+    @Test
+    public void sortPerSnapshot() {
+        ChatMessage late = BenchmarkData.message(size, ordered.get(size / 2).timestamp + 1);
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            List<ChatMessage> chatMessages = new ArrayList<>(ordered);
+            state.resumeTiming();
+            chatMessages.add(late);
+            Collections.sort(chatMessages, (obj1, obj2) -> Long.compare(obj1.timestamp, obj2.timestamp));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.signinsignout.microbenchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.signinsignout.firebase.messagingService;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures mapping raw message payloads to ChatMessage objects.
+ *
+ * Firestore snapshots cannot be created outside the SDK, so the push payload mapping stands
+ * in for the per-document mapping cost. It reads the same fields and parses the timestamp.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MessageMappingBenchmark {
+    private static final int PAYLOAD_COUNT = 1_000;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    /**
+     * Measures mapping a batch of payloads, as a large snapshot would deliver them.
+     */
+    @Test
+    public void mapPayloads() {
+        List<Map<String, String>> payloads = new ArrayList<>(PAYLOAD_COUNT);
+        for (int i = 0; i < PAYLOAD_COUNT; i++) {
+            payloads.add(BenchmarkData.payload(i));
+        }
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (Map<String, String> payload : payloads) {
+                messagingService.toChatMessage(payload);
+            }
+        }
+    }
+}
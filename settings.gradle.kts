@@ -21,4 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "SignInSignOut"
 include(":app")
+include(":microbenchmark")
+include(":macrobenchmark")
  
\ No newline at end of file
@@ -0,0 +1,82 @@
+/**
+ * One-off backfill of the user directory search fields.
+ *
+ * Users created before the searchName and searchEmail fields existed match no directory
+ * query. Legacy accounts get the fields when they next sign in; this script writes them for
+ * every other user. Only the name and email fields are read, a page at a time, and users that
+ * already have both search fields are skipped, so running it again is cheap and safe.
+ *
+ * Run with admin credentials, never from the app:
+ *
+ *   npm install firebase-admin
+ *   GOOGLE_APPLICATION_CREDENTIALS=service-account.json node tools/backfill-search-fields.js
+ */
+const admin = require('firebase-admin');
+
+const COLLECTION_USERS = 'user';
+const PAGE_SIZE = 450;
+
+/**
+ * Builds the lowercase search name, matching UserRepository.getSearchName.
+ *
+ * @param {string} firstName The user's first name.
+ * @param {string} lastName  The user's last name.
+ * @return {string} The search name.
+ */
+function getSearchName(firstName, lastName) {
+  return `${firstName || ''} ${lastName || ''}`.trim().toLowerCase();
+}
+
+/**
+ * Builds the lowercase search email, matching UserRepository.getSearchEmail.
+ *
+ * @param {string} email The user's email.
+ * @return {string} The search email.
+ */
+function getSearchEmail(email) {
+  return email.trim().toLowerCase();
+}
+
+/**
+ * Pages through the user collection and writes the missing search fields.
+ */
+async function main() {
+  admin.initializeApp();
+  const database = admin.firestore();
+  let query = database.collection(COLLECTION_USERS)
+      .select('First name', 'Last name', 'email', 'searchName', 'searchEmail')
+      .orderBy(admin.firestore.FieldPath.documentId())
+      .limit(PAGE_SIZE);
+  let updated = 0;
+  for (;;) {
+    const page = await query.get();
+    if (page.empty) {
+      break;
+    }
+    const batch = database.batch();
+    let writes = 0;
+    for (const document of page.docs) {
+      const user = document.data();
+      if (user.searchName !== undefined && user.searchEmail !== undefined) {
+        continue;
+      }
+      const fields = {searchName: getSearchName(user['First name'], user['Last name'])};
+      if (typeof user.email === 'string') {
+        fields.searchEmail = getSearchEmail(user.email);
+      }
+      batch.update(document.ref, fields);
+      writes++;
+    }
+    if (writes > 0) {
+      await batch.commit();
+      updated += writes;
+    }
+    query = query.startAfter(page.docs[page.docs.length - 1]);
+  }
+  console.log(`Backfilled search fields of ${updated} users`);
+}
+
+main().catch((error) => {
+  console.error(error);
+  process.exit(1);
+});